@@ -0,0 +1,93 @@
+package com.reply.library.dto;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.reply.library.config.JacksonConfig;
+import com.reply.library.util.FieldSelection;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writing a page of books as {@code GET /api/books} does: the Spring {@code Page} it used to
+ * return, the lean {@link PageDTO}, the same narrowed to {@code fields=id,borrowed}, and in
+ * CBOR.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PageSerializationBenchmark {
+    
+    @Param({"10", "100", "1000"})
+    private int pageSize;
+    
+    private ObjectMapper objectMapper;
+    private ObjectMapper cborMapper;
+    private ObjectWriter sparseWriter;
+    private Page<BookDTO> page;
+    private PageDTO<BookDTO> leanPage;
+    
+    @Setup
+    public void setUp() {
+        // same defaults and filters as the mappers Spring Boot hands to the message converters
+        JacksonConfig config = new JacksonConfig();
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json();
+        config.fieldSelectionCustomizer().customize(builder);
+        objectMapper = builder.build();
+        cborMapper = builder.factory(new CBORFactory()).build();
+        sparseWriter = objectMapper.writer(new SimpleFilterProvider()
+            .addFilter(FieldSelection.FILTER, SimpleBeanPropertyFilter.filterOutAllExcept("id", "borrowed")));
+        
+        List<BookDTO> books = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            BookDTO book = new BookDTO("Title " + i, "Author " + (i % 50), String.format("%013d", i));
+            book.setId((long) i + 1);
+            book.setBorrowed(i % 3 == 0);
+            books.add(book);
+        }
+        page = new PageImpl<>(books, PageRequest.of(0, pageSize), 100_000);
+        leanPage = PageDTO.of(page);
+    }
+    
+    @Benchmark
+    public byte[] serializePage() throws Exception {
+        return objectMapper.writeValueAsBytes(page);
+    }
+    
+    @Benchmark
+    public byte[] serializeLeanPage() throws Exception {
+        return objectMapper.writeValueAsBytes(leanPage);
+    }
+    
+    @Benchmark
+    public byte[] serializeSparsePage() throws Exception {
+        return sparseWriter.writeValueAsBytes(leanPage);
+    }
+    
+    @Benchmark
+    public byte[] serializeLeanPageCbor() throws Exception {
+        return cborMapper.writeValueAsBytes(leanPage);
+    }
+}
\ No newline at end of file
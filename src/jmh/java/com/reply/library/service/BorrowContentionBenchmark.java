@@ -0,0 +1,119 @@
+package com.reply.library.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.reply.library.LibraryApplication;
+import com.reply.library.dto.BookDTO;
+import com.reply.library.dto.MemberDTO;
+import com.reply.library.repository.BookRepository;
+import com.reply.library.util.BookImportReader;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Borrow followed by return through {@link LibraryService}, with every thread picking books
+ * from a small hot set so requests collide. The application runs on the H2 profile and is
+ * seeded with a catalog of {@code catalogSize} books through the bulk importer.
+ * <p>
+ * Besides throughput, the {@code completed} and {@code conflicts} counters show how many
+ * attempts went through and how many were turned away because the book was already out.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class BorrowContentionBenchmark {
+    
+    @Param({"100000"})
+    private int catalogSize;
+    
+    @Param({"8", "1024"})
+    private int hotBooks;
+    
+    private ConfigurableApplicationContext context;
+    private LibraryService libraryService;
+    private long[] bookIds;
+    private Long memberId;
+    
+    @Setup(Level.Trial)
+    public void startApplication() throws Exception {
+        context = new SpringApplicationBuilder(LibraryApplication.class)
+            .profiles("h2")
+            .properties(
+                "server.port=0",
+                "spring.jpa.show-sql=false",
+                "logging.level.root=WARN")
+            .run();
+        
+        seedCatalog(context.getBean(BookImportService.class), context.getBean(ObjectMapper.class));
+        memberId = context.getBean(MemberService.class)
+            .createMember(new MemberDTO("Benchmark Member", "bench@example.com"))
+            .getId();
+        
+        List<BookDTO> hot = context.getBean(BookRepository.class)
+            .findDtosAfter(0L, PageRequest.of(0, hotBooks));
+        bookIds = hot.stream().mapToLong(BookDTO::getId).toArray();
+        libraryService = context.getBean(LibraryService.class);
+    }
+    
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        context.close();
+    }
+    
+    private void seedCatalog(BookImportService importService, ObjectMapper objectMapper) throws Exception {
+        StringBuilder csv = new StringBuilder("title,author,isbn\n");
+        for (int i = 0; i < catalogSize; i++) {
+            csv.append("Title ").append(i).append(",Author ").append(i % 500).append(',')
+                .append(String.format("%013d", i)).append('\n');
+        }
+        ByteArrayInputStream body = new ByteArrayInputStream(csv.toString().getBytes(StandardCharsets.UTF_8));
+        try (BookImportReader reader = BookImportReader.open(BookImportReader.TEXT_CSV, body, objectMapper)) {
+            importService.importBooks(reader, progress -> { });
+        }
+    }
+    
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Outcomes {
+        public long completed;
+        public long conflicts;
+    }
+    
+    @Benchmark
+    public void borrowAndReturn(Outcomes outcomes) {
+        Long bookId = bookIds[ThreadLocalRandom.current().nextInt(bookIds.length)];
+        try {
+            libraryService.borrowBook(bookId, memberId);
+        } catch (IllegalStateException ex) {
+            outcomes.conflicts++;
+            return;
+        }
+        libraryService.returnBook(bookId);
+        outcomes.completed++;
+    }
+}
\ No newline at end of file
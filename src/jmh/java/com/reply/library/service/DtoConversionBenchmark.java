@@ -0,0 +1,57 @@
+package com.reply.library.service;
+
+import com.reply.library.dto.BookDTO;
+import com.reply.library.dto.MemberDTO;
+import com.reply.library.entity.Book;
+import com.reply.library.entity.Member;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity to DTO mapping, which runs once per row on every read endpoint.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DtoConversionBenchmark {
+    
+    private BookService bookService;
+    private MemberService memberService;
+    private Book book;
+    private Member member;
+    
+    @Setup
+    public void setUp() {
+        // the conversions only read their argument, so no collaborators are needed
+        bookService = new BookService();
+        memberService = new MemberService();
+        
+        book = new Book("The Left Hand of Darkness", "Ursula K. Le Guin", "9780441478125");
+        book.setId(42L);
+        member = new Member("Jane Doe", "jane.doe@example.com");
+        member.setId(7L);
+    }
+    
+    @Benchmark
+    public BookDTO bookToDto() {
+        return bookService.convertToDTO(book);
+    }
+    
+    @Benchmark
+    public MemberDTO memberToDto() {
+        return memberService.convertToDTO(member);
+    }
+}
\ No newline at end of file
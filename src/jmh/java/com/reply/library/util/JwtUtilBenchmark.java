@@ -0,0 +1,37 @@
+package com.reply.library.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token issuing cost behind {@code POST /auth/token}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtUtilBenchmark {
+    
+    private final JwtUtil jwtUtil = new JwtUtil();
+    
+    @Benchmark
+    public String generateToken() {
+        return jwtUtil.generateToken("user");
+    }
+    
+    @Benchmark
+    public String generateTokenWithRoles() {
+        return jwtUtil.generateToken("admin", "USER", "ADMIN");
+    }
+}
\ No newline at end of file
@@ -0,0 +1,65 @@
+// Holds 5,000 concurrent connections against a running instance and reports throughput and
+// latency. Run it once against the default (platform thread) mode and once with the
+// virtual-threads profile, on the same database, and compare http_reqs and the percentiles.
+//
+//   k6 run src/loadtest/k6/concurrency.js
+//   k6 run -e BASE_URL=http://host:8080 -e VUS=5000 -e BOOKS=1000 src/loadtest/k6/concurrency.js
+//
+// The catalog must hold at least BOOKS books with ids 1..BOOKS and one member with id 1,
+// e.g. seeded through POST /api/books/import.
+import http from 'k6/http';
+import { check } from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
+const VUS = parseInt(__ENV.VUS || '5000');
+const BOOKS = parseInt(__ENV.BOOKS || '1000');
+
+export const options = {
+    scenarios: {
+        concurrent: {
+            executor: 'ramping-vus',
+            startVUs: 0,
+            stages: [
+                { duration: '30s', target: VUS },
+                { duration: '2m', target: VUS },
+                { duration: '15s', target: 0 },
+            ],
+            gracefulRampDown: '10s',
+        },
+    },
+    summaryTrendStats: ['avg', 'p(50)', 'p(95)', 'p(99)', 'max'],
+    thresholds: {
+        // 503s from the concurrency limiter are expected under overload; anything else is not
+        'checks{type:status}': ['rate>0.99'],
+    },
+};
+
+export function setup() {
+    const res = http.post(`${BASE_URL}/auth/token`, JSON.stringify({ username: 'loadtest' }), {
+        headers: { 'Content-Type': 'application/json' },
+    });
+    return { token: res.json('token') };
+}
+
+export default function (data) {
+    const params = { headers: { Authorization: `Bearer ${data.token}` } };
+    const id = 1 + Math.floor(Math.random() * BOOKS);
+    const roll = Math.random();
+
+    let res;
+    if (roll < 0.6) {
+        res = http.get(`${BASE_URL}/api/books/${id}`, Object.assign({ tags: { name: 'book' } }, params));
+    } else if (roll < 0.9) {
+        res = http.get(`${BASE_URL}/api/books?page=${id % 50}&size=20`, Object.assign({ tags: { name: 'page' } }, params));
+    } else {
+        // borrow and return; 409 means another virtual user holds the book
+        res = http.post(`${BASE_URL}/api/borrow/${id}/member/1`, null, Object.assign({ tags: { name: 'borrow' } }, params));
+        if (res.status === 200) {
+            http.post(`${BASE_URL}/api/return/${id}`, null, Object.assign({ tags: { name: 'return' } }, params));
+        }
+    }
+
+    check(res, {
+        'status is expected': (r) => [200, 409, 503].includes(r.status),
+    }, { type: 'status' });
+}
@@ -0,0 +1,93 @@
+package com.reply.library.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.concurrent.DelegatingSecurityContextRunnable;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.Duration;
+
+@Configuration
+@EnableAsync
+@EnableScheduling
+public class AsyncConfig implements WebMvcConfigurer {
+    
+    public static final String CATALOG_EXECUTOR = "catalogExecutor";
+    
+    public static final String CHANGE_FEED_EXECUTOR = "changeFeedExecutor";
+    
+    public static final String STREAMING_EXECUTOR = "streamingExecutor";
+    
+    @Value("${library.streaming.threads:16}")
+    private int streamingThreads = 16;
+    
+    @Value("${library.streaming.queue-capacity:100}")
+    private int streamingQueueCapacity = 100;
+    
+    @Value("${library.streaming.timeout:PT2H}")
+    private Duration streamingTimeout = Duration.ofHours(2);
+    
+    /**
+     * MVC async work, i.e. the {@code StreamingResponseBody} imports and exports. The
+     * executors below keep Spring Boot from creating its own {@code applicationTaskExecutor},
+     * so without this MVC would fall back to a thread per request with no bound. The default
+     * timeout is long, as streams run as long as the catalog is large; the catalog reads set
+     * their own.
+     */
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(streamingExecutor());
+        configurer.setDefaultTimeout(streamingTimeout.toMillis());
+    }
+    
+    /**
+     * Bounded like the other executors: streams beyond the queue are rejected with 503
+     * instead of each taking a new thread.
+     */
+    @Bean(name = STREAMING_EXECUTOR)
+    public ThreadPoolTaskExecutor streamingExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(streamingThreads);
+        executor.setMaxPoolSize(streamingThreads);
+        executor.setQueueCapacity(streamingQueueCapacity);
+        executor.setThreadNamePrefix("streaming-");
+        return executor;
+    }
+    
+    /**
+     * Runs the blocking part of catalog reads off the request thread. Sized like the
+     * connection pool, since each task holds at most one connection; reads beyond that wait
+     * in the queue, and once the queue is full they are rejected with 503.
+     */
+    @Bean(name = CATALOG_EXECUTOR)
+    public ThreadPoolTaskExecutor catalogExecutor(@Value("${library.catalog.threads:10}") int threads,
+                                                  @Value("${library.catalog.queue-capacity:10000}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("catalog-");
+        // carry the caller's identity over, read-your-writes routing depends on it
+        executor.setTaskDecorator(task -> DelegatingSecurityContextRunnable.create(task, null));
+        return executor;
+    }
+    
+    /**
+     * Writes change-feed events to subscribers. A subscriber has at most one drain task in
+     * flight, so publishers never block and the queue is bounded by the number of
+     * subscribers.
+     */
+    @Bean(name = CHANGE_FEED_EXECUTOR)
+    public ThreadPoolTaskExecutor changeFeedExecutor(@Value("${library.changes.threads:4}") int threads) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setThreadNamePrefix("changes-");
+        return executor;
+    }
+}
\ No newline at end of file
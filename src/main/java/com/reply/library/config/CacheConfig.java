@@ -0,0 +1,60 @@
+package com.reply.library.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.reply.library.dto.BookDTO;
+import com.reply.library.dto.MemberDTO;
+import com.reply.library.util.SingleFlight;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.List;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+    
+    public static final String BOOKS = "books";
+    public static final String MEMBERS = "members";
+    public static final String MEMBER_EXISTS = "memberExists";
+    
+    /**
+     * Caffeine caches for catalog reads, bounded by size and time-to-live. Statistics are
+     * recorded so Actuator publishes hit, miss and eviction counts under {@code cache.*}.
+     * Puts and evictions made through {@code @Cacheable} and {@code @CacheEvict} are deferred
+     * until the surrounding transaction commits. The book and member caches are filled and
+     * evicted by their services instead, in step with {@link SingleFlight}, so a load that
+     * overlapped a committed change never caches the old row.
+     */
+    @Bean
+    public CacheManager cacheManager(@Value("${library.cache.maximum-size:10000}") long maximumSize,
+                                     @Value("${library.cache.time-to-live:10m}") Duration timeToLive) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.setCaffeine(Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfterWrite(timeToLive)
+            .recordStats());
+        cacheManager.setCacheNames(List.of(BOOKS, MEMBERS, MEMBER_EXISTS));
+        return new TransactionAwareCacheManagerProxy(cacheManager);
+    }
+    
+    /**
+     * Coalesces concurrent cache misses for the same book, so a trending book costs one
+     * query however many requests arrive before the cache is filled.
+     */
+    @Bean
+    public SingleFlight<Long, BookDTO> bookLookups(MeterRegistry meterRegistry) {
+        return new SingleFlight<>(BOOKS, meterRegistry);
+    }
+    
+    @Bean
+    public SingleFlight<Long, MemberDTO> memberLookups(MeterRegistry meterRegistry) {
+        return new SingleFlight<>(MEMBERS, meterRegistry);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,87 @@
+package com.reply.library.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+
+/**
+ * Remembers tokens that already passed signature and claim validation, so a client reusing
+ * its bearer token does not pay for the HMAC and JSON parsing on every request. Entries are
+ * keyed by the SHA-256 of the token, so the cache never holds the credential itself, and
+ * expire at the token's {@code exp}. Tokens without an expiry and tokens that fail
+ * validation are never cached.
+ */
+public class CachingJwtDecoder implements JwtDecoder {
+    
+    private final JwtDecoder delegate;
+    private final Cache<String, Jwt> cache;
+    
+    public CachingJwtDecoder(JwtDecoder delegate, long maximumSize) {
+        this.delegate = delegate;
+        this.cache = Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfter(new UntilExpiry())
+            .recordStats()
+            .build();
+    }
+    
+    @Override
+    public Jwt decode(String token) throws JwtException {
+        String key = digest(token);
+        Jwt jwt = cache.getIfPresent(key);
+        if (jwt != null) {
+            return jwt;
+        }
+        jwt = delegate.decode(token);
+        if (jwt.getExpiresAt() != null) {
+            cache.put(key, jwt);
+        }
+        return jwt;
+    }
+    
+    /**
+     * Exposed so the cache can be registered with Micrometer.
+     */
+    public Cache<String, Jwt> getCache() {
+        return cache;
+    }
+    
+    private static String digest(String token) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(sha256.digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException ex) {
+            // every JVM is required to provide SHA-256
+            throw new IllegalStateException(ex);
+        }
+    }
+    
+    private static class UntilExpiry implements Expiry<String, Jwt> {
+        
+        @Override
+        public long expireAfterCreate(String key, Jwt jwt, long currentTime) {
+            Duration remaining = Duration.between(Instant.now(), jwt.getExpiresAt());
+            return Math.max(0, remaining.toNanos());
+        }
+        
+        @Override
+        public long expireAfterUpdate(String key, Jwt jwt, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, jwt, currentTime);
+        }
+        
+        @Override
+        public long expireAfterRead(String key, Jwt jwt, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,92 @@
+package com.reply.library.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caps the number of API requests running at once. With virtual threads the servlet
+ * container no longer limits concurrency, so without this every request would queue inside
+ * the connection pool and fail only after the pool's connection timeout. The limit is a
+ * multiple of the pool size; requests over it wait up to {@code acquireTimeout} for a slot
+ * and are then answered with 503 and a {@code Retry-After} header.
+ */
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+    
+    private final Semaphore permits;
+    private final int maxConcurrentRequests;
+    private final Duration acquireTimeout;
+    private final Counter rejected;
+    
+    public ConcurrencyLimitFilter(int maxConcurrentRequests, Duration acquireTimeout, MeterRegistry meterRegistry) {
+        this(maxConcurrentRequests, acquireTimeout, meterRegistry, "concurrency", "library.requests.in_flight");
+    }
+    
+    /**
+     * @param reason tag on {@code library.requests.rejected} for requests this instance turns away
+     * @param inFlightGauge name of the gauge reporting the requests it is letting through
+     */
+    public ConcurrencyLimitFilter(int maxConcurrentRequests, Duration acquireTimeout, MeterRegistry meterRegistry,
+                                  String reason, String inFlightGauge) {
+        this.permits = new Semaphore(maxConcurrentRequests, true);
+        this.maxConcurrentRequests = maxConcurrentRequests;
+        this.acquireTimeout = acquireTimeout;
+        this.rejected = meterRegistry.counter("library.requests.rejected", "reason", reason);
+        Gauge.builder(inFlightGauge, this, f -> f.maxConcurrentRequests - f.permits.availablePermits())
+            .register(meterRegistry);
+    }
+    
+    /**
+     * Sizes the limit from the Hikari pool behind {@code dataSource}.
+     */
+    public static int limitFor(DataSource dataSource, int requestsPerConnection) {
+        try {
+            return dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize() * requestsPerConnection;
+        } catch (SQLException ex) {
+            throw new IllegalStateException("Concurrency limit needs a Hikari connection pool", ex);
+        }
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(acquireTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        
+        if (!acquired) {
+            rejected.increment();
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getWriter().write("{\"status\":503,\"message\":\"Server is busy, please retry\"}");
+            return;
+        }
+        
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            permits.release();
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,30 @@
+package com.reply.library.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@Configuration
+public class IdempotencyConfig {
+    
+    /**
+     * Registered on the endpoints kiosks retry. The filter runs after Spring Security, so
+     * keys are scoped to the authenticated user.
+     */
+    @Bean
+    public FilterRegistrationBean<IdempotencyFilter> idempotencyFilter(
+            IdempotencyStore store,
+            MeterRegistry meterRegistry,
+            @Value("${library.idempotency.wait-timeout:10s}") Duration waitTimeout,
+            @Value("${library.idempotency.max-body-size:1MB}") DataSize maxBodySize) {
+        FilterRegistrationBean<IdempotencyFilter> registration = new FilterRegistrationBean<>(
+            new IdempotencyFilter(store, waitTimeout, meterRegistry, Math.toIntExact(maxBodySize.toBytes())));
+        registration.addUrlPatterns("/api/borrow/*", "/api/return/*", "/api/books", "/api/members");
+        return registration;
+    }
+}
\ No newline at end of file
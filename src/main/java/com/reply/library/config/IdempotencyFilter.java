@@ -0,0 +1,257 @@
+package com.reply.library.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.Principal;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Makes POST requests carrying an {@code Idempotency-Key} header safe to retry. The first
+ * request with a key runs normally and its response is stored; later requests with the
+ * same key, from the same user to the same endpoint, get that response replayed with an
+ * {@code Idempotent-Replayed: true} header instead of running again. A duplicate that
+ * arrives at the same instance while the first is still running there waits for it rather
+ * than racing it. In-flight requests are only tracked in memory, so with several instances
+ * sharing the persistent store, duplicates that reach different instances before the first
+ * has finished can both run.
+ * <p>
+ * Reusing a key with a different body is rejected with 422. Server errors are not stored,
+ * so retrying after a 5xx runs the request again. The body is held in memory to fingerprint
+ * it, so requests with a key and a body over {@code maxBodySize} are rejected with 413.
+ */
+public class IdempotencyFilter extends OncePerRequestFilter {
+    
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final Set<String> NOT_REPLAYED = Set.of(
+        "content-type", "content-length", "transfer-encoding", "date", "set-cookie",
+        REPLAYED_HEADER.toLowerCase(Locale.ROOT));
+    
+    private final IdempotencyStore store;
+    private final Duration waitTimeout;
+    private final MeterRegistry meterRegistry;
+    private final int maxBodySize;
+    
+    public IdempotencyFilter(IdempotencyStore store, Duration waitTimeout, MeterRegistry meterRegistry, int maxBodySize) {
+        this.store = store;
+        this.waitTimeout = waitTimeout;
+        this.meterRegistry = meterRegistry;
+        this.maxBodySize = maxBodySize;
+    }
+    
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"POST".equals(request.getMethod()) || request.getHeader(HEADER) == null;
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String key = request.getHeader(HEADER);
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            writeError(response, HttpStatus.BAD_REQUEST, "Idempotency-Key must be 1 to " + MAX_KEY_LENGTH + " characters");
+            return;
+        }
+        
+        byte[] body = request.getContentLengthLong() > maxBodySize
+            ? null
+            : request.getInputStream().readNBytes(maxBodySize + 1);
+        if (body == null || body.length > maxBodySize) {
+            writeError(response, HttpStatus.PAYLOAD_TOO_LARGE,
+                "Requests with an Idempotency-Key are limited to " + maxBodySize + " bytes");
+            return;
+        }
+        
+        CachedBodyRequest cachedRequest = new CachedBodyRequest(request, body);
+        Principal principal = request.getUserPrincipal();
+        String scope = IdempotencyStore.hash(principal == null ? "" : principal.getName(),
+            request.getMethod(), request.getRequestURI(), key);
+        String fingerprint = IdempotencyStore.hash(cachedRequest.body,
+            String.valueOf(request.getQueryString()).getBytes(StandardCharsets.UTF_8));
+        
+        IdempotencyStore.StoredResponse stored = store.find(scope);
+        if (stored == null) {
+            CompletableFuture<IdempotencyStore.StoredResponse> running = store.begin(scope);
+            if (running == null) {
+                execute(scope, fingerprint, cachedRequest, response, chain);
+                return;
+            }
+            
+            count("coalesced");
+            try {
+                stored = running.get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+            } catch (TimeoutException ex) {
+                writeError(response, HttpStatus.CONFLICT, "A request with this Idempotency-Key is still in progress");
+                return;
+            } catch (ExecutionException ex) {
+                writeError(response, HttpStatus.CONFLICT, "The request with this Idempotency-Key failed, please retry");
+                return;
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                writeError(response, HttpStatus.CONFLICT, "A request with this Idempotency-Key is still in progress");
+                return;
+            }
+        }
+        
+        replay(stored, fingerprint, response);
+    }
+    
+    private void execute(String scope, String fingerprint, CachedBodyRequest request,
+                         HttpServletResponse response, FilterChain chain) throws ServletException, IOException {
+        IdempotencyStore.StoredResponse result = null;
+        try {
+            // the previous holder of the key may have finished between our lookup and claim
+            IdempotencyStore.StoredResponse finished = store.find(scope);
+            if (finished != null) {
+                result = finished;
+                replay(finished, fingerprint, response);
+                return;
+            }
+            
+            ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+            chain.doFilter(request, wrapper);
+            result = new IdempotencyStore.StoredResponse(fingerprint, wrapper.getStatus(),
+                wrapper.getContentType(), replayableHeaders(wrapper), wrapper.getContentAsByteArray());
+            wrapper.copyBodyToResponse();
+        } finally {
+            store.complete(scope, result);
+        }
+    }
+    
+    private void replay(IdempotencyStore.StoredResponse stored, String fingerprint, HttpServletResponse response)
+            throws IOException {
+        if (!stored.getRequestHash().equals(fingerprint)) {
+            count("mismatch");
+            writeError(response, HttpStatus.UNPROCESSABLE_ENTITY, "Idempotency-Key was already used for a different request");
+            return;
+        }
+        
+        count("replayed");
+        response.setStatus(stored.getStatus());
+        if (stored.getContentType() != null) {
+            response.setContentType(stored.getContentType());
+        }
+        stored.getHeaders().forEach((name, values) -> {
+            response.setHeader(name, values.get(0));
+            values.stream().skip(1).forEach(value -> response.addHeader(name, value));
+        });
+        response.setHeader(REPLAYED_HEADER, "true");
+        response.setContentLength(stored.getBody().length);
+        response.getOutputStream().write(stored.getBody());
+    }
+    
+    /**
+     * The headers of the first response that a replay sends again, e.g. {@code Location} and
+     * {@code ETag}. Framing headers are set by the replay itself, and cookies belong to the
+     * first request's session.
+     */
+    private static Map<String, List<String>> replayableHeaders(HttpServletResponse response) {
+        Map<String, List<String>> headers = new LinkedHashMap<>();
+        for (String name : response.getHeaderNames()) {
+            if (!NOT_REPLAYED.contains(name.toLowerCase(Locale.ROOT)) && !headers.containsKey(name)) {
+                headers.put(name, List.copyOf(response.getHeaders(name)));
+            }
+        }
+        return headers;
+    }
+    
+    private void count(String outcome) {
+        meterRegistry.counter("library.idempotency.requests", "outcome", outcome).increment();
+    }
+    
+    private static void writeError(HttpServletResponse response, HttpStatus status, String message) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write("{\"status\":" + status.value() + ",\"message\":\"" + message + "\"}");
+    }
+    
+    /**
+     * Serves the body read up front, so it can be fingerprinted and still be read by the
+     * handler.
+     */
+    private static class CachedBodyRequest extends HttpServletRequestWrapper {
+        
+        private final byte[] body;
+        
+        CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+        
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public int read() {
+                    return in.read();
+                }
+                
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return in.read(b, off, len);
+                }
+                
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+                
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+                
+                /**
+                 * The body is already in memory, so everything is available at once.
+                 */
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    try {
+                        if (!isFinished()) {
+                            listener.onDataAvailable();
+                        }
+                        listener.onAllDataRead();
+                    } catch (IOException ex) {
+                        listener.onError(ex);
+                    }
+                }
+            };
+        }
+        
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding();
+            return new BufferedReader(new InputStreamReader(getInputStream(),
+                encoding == null ? StandardCharsets.UTF_8 : Charset.forName(encoding)));
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,212 @@
+package com.reply.library.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.reply.library.entity.IdempotencyRecord;
+import com.reply.library.repository.IdempotencyRecordRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Responses of requests sent with an {@code Idempotency-Key}, plus the executions still
+ * running for a key so that concurrent duplicates can wait for them.
+ * <p>
+ * Responses are kept in a bounded in-memory cache for {@code ttl}. With
+ * {@code library.idempotency.persistent} they are also written to the
+ * {@code idempotency_keys} table and looked up there on a cache miss. The record is
+ * written after the request's own transaction has committed, so a crash in between means
+ * the retry runs again.
+ */
+@Component
+public class IdempotencyStore {
+    
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyStore.class);
+    
+    public static class StoredResponse {
+        private final String requestHash;
+        private final int status;
+        private final String contentType;
+        private final Map<String, List<String>> headers;
+        private final byte[] body;
+        
+        /**
+         * @param headers response headers to replay, such as {@code Location} and
+         *                {@code ETag}, by name
+         */
+        public StoredResponse(String requestHash, int status, String contentType,
+                              Map<String, List<String>> headers, byte[] body) {
+            this.requestHash = requestHash;
+            this.status = status;
+            this.contentType = contentType;
+            this.headers = headers;
+            this.body = body;
+        }
+        
+        public String getRequestHash() { return requestHash; }
+        public int getStatus() { return status; }
+        public String getContentType() { return contentType; }
+        public Map<String, List<String>> getHeaders() { return headers; }
+        public byte[] getBody() { return body; }
+    }
+    
+    private final Cache<String, StoredResponse> responses;
+    
+    private final ConcurrentHashMap<String, CompletableFuture<StoredResponse>> inFlight = new ConcurrentHashMap<>();
+    
+    private final IdempotencyRecordRepository repository;
+    
+    private final Duration ttl;
+    
+    private final boolean persistent;
+    
+    public IdempotencyStore(IdempotencyRecordRepository repository,
+                            @Value("${library.idempotency.maximum-size:10000}") long maximumSize,
+                            @Value("${library.idempotency.ttl:24h}") Duration ttl,
+                            @Value("${library.idempotency.persistent:false}") boolean persistent) {
+        this.repository = repository;
+        this.ttl = ttl;
+        this.persistent = persistent;
+        this.responses = Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfterWrite(ttl)
+            .build();
+    }
+    
+    /**
+     * @return the stored response for {@code key}, or null if there is none
+     */
+    public StoredResponse find(String key) {
+        StoredResponse response = responses.getIfPresent(key);
+        if (response != null || !persistent) {
+            return response;
+        }
+        
+        IdempotencyRecord record = repository.findById(key).orElse(null);
+        if (record == null || record.getCreatedAt().isBefore(Instant.now().minus(ttl))) {
+            return null;
+        }
+        response = new StoredResponse(record.getRequestHash(), record.getStatus(), record.getContentType(),
+            decodeHeaders(record.getHeaders()), record.getBody());
+        responses.put(key, response);
+        return response;
+    }
+    
+    /**
+     * Claims {@code key} for execution. The caller that gets null owns the key and must
+     * call {@link #complete(String, StoredResponse)} when it is done, also if it fails.
+     *
+     * @return null if the key was claimed, otherwise the execution already running for it
+     */
+    public CompletableFuture<StoredResponse> begin(String key) {
+        return inFlight.putIfAbsent(key, new CompletableFuture<>());
+    }
+    
+    /**
+     * Releases a claimed key and hands the result to any requests waiting on it. Responses
+     * below 500 are kept for replay; server errors are not, so a retry runs again.
+     *
+     * @param response the response sent, or null if the request failed without one
+     */
+    public void complete(String key, StoredResponse response) {
+        if (response != null && response.getStatus() < 500) {
+            // stored before the claim is released, so later requests always find one or the other
+            responses.put(key, response);
+            if (persistent) {
+                persist(key, response);
+            }
+        }
+        
+        CompletableFuture<StoredResponse> running = inFlight.remove(key);
+        if (running == null) {
+            return;
+        }
+        if (response != null) {
+            running.complete(response);
+        } else {
+            running.completeExceptionally(new IllegalStateException("Request failed without a response"));
+        }
+    }
+    
+    @Scheduled(fixedDelayString = "${library.idempotency.cleanup-interval:PT1H}")
+    public void cleanUp() {
+        if (persistent) {
+            int deleted = repository.deleteCreatedBefore(Instant.now().minus(ttl));
+            log.debug("Deleted {} expired idempotency records", deleted);
+        }
+    }
+    
+    private void persist(String key, StoredResponse response) {
+        try {
+            repository.save(new IdempotencyRecord(key, response.getRequestHash(), response.getStatus(),
+                response.getContentType(), encodeHeaders(response.getHeaders()), response.getBody(), Instant.now()));
+        } catch (DataAccessException ex) {
+            // the in-memory copy still covers retries reaching this instance
+            log.warn("Could not persist idempotency record", ex);
+        }
+    }
+    
+    /**
+     * One {@code Name: value} line per header value; header values cannot contain line
+     * breaks, so no escaping is needed.
+     */
+    static String encodeHeaders(Map<String, List<String>> headers) {
+        StringBuilder encoded = new StringBuilder();
+        headers.forEach((name, values) -> values.forEach(value ->
+            encoded.append(name).append(": ").append(value).append('\n')));
+        return encoded.toString();
+    }
+    
+    static Map<String, List<String>> decodeHeaders(String encoded) {
+        Map<String, List<String>> headers = new LinkedHashMap<>();
+        if (encoded == null) {
+            return headers;
+        }
+        for (String line : encoded.split("\n")) {
+            int colon = line.indexOf(": ");
+            if (colon > 0) {
+                headers.computeIfAbsent(line.substring(0, colon), name -> new ArrayList<>())
+                    .add(line.substring(colon + 2));
+            }
+        }
+        return headers;
+    }
+    
+    public static String hash(byte[]... parts) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            for (byte[] part : parts) {
+                sha256.update(part);
+                sha256.update((byte) 0);
+            }
+            return HexFormat.of().formatHex(sha256.digest());
+        } catch (NoSuchAlgorithmException ex) {
+            // every JVM is required to provide SHA-256
+            throw new IllegalStateException(ex);
+        }
+    }
+    
+    public static String hash(String... parts) {
+        byte[][] bytes = new byte[parts.length][];
+        for (int i = 0; i < parts.length; i++) {
+            bytes[i] = parts[i] == null ? new byte[0] : parts[i].getBytes(StandardCharsets.UTF_8);
+        }
+        return hash(bytes);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,39 @@
+package com.reply.library.config;
+
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.reply.library.dto.BookDTO;
+import com.reply.library.dto.MemberDTO;
+import com.reply.library.util.FieldSelection;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+@Configuration
+public class JacksonConfig {
+    
+    /**
+     * Puts the catalog DTOs under the {@code ?fields=} filter. Unless a response narrows
+     * them, every property is written.
+     */
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer fieldSelectionCustomizer() {
+        return builder -> builder
+            .mixIn(BookDTO.class, FieldSelection.Filtered.class)
+            .mixIn(MemberDTO.class, FieldSelection.Filtered.class)
+            .filters(new SimpleFilterProvider().setDefaultFilter(SimpleBeanPropertyFilter.serializeAll()));
+    }
+    
+    /**
+     * Answers {@code Accept: application/cbor} with the same documents in binary form, which
+     * is smaller on the wire and cheaper to write than JSON. Built from Spring Boot's mapper
+     * builder so it shares the JSON mapper's settings and filters.
+     */
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,25 @@
+package com.reply.library.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.reply.library.service.NdjsonFileOutboxSink;
+import com.reply.library.service.OutboxSink;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+
+@Configuration
+public class OutboxConfig {
+    
+    /**
+     * Used unless another {@link OutboxSink} bean is defined, e.g. one backed by Kafka.
+     */
+    @Bean
+    @ConditionalOnMissingBean(OutboxSink.class)
+    public OutboxSink outboxSink(ObjectMapper objectMapper,
+                                 @Value("${library.outbox.file:${java.io.tmpdir}/library-outbox.ndjson}") String file) {
+        return new NdjsonFileOutboxSink(Path.of(file), objectMapper);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,69 @@
+package com.reply.library.config;
+
+import com.reply.library.util.RateLimiter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Admission control for the API: per-caller rate limits, plus a cap on concurrent borrow
+ * and return requests. Switched off with {@code library.rate-limit.enabled=false}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "library.rate-limit.enabled", havingValue = "true", matchIfMissing = true)
+public class RateLimitConfig {
+    
+    /**
+     * Added to the security filter chain by {@link SecurityConfig}, where the caller is
+     * known.
+     */
+    @Bean
+    public RateLimitFilter rateLimitFilter(
+            MeterRegistry meterRegistry,
+            @Value("${library.rate-limit.read.permits-per-second:100}") double readRate,
+            @Value("${library.rate-limit.read.burst:200}") int readBurst,
+            @Value("${library.rate-limit.write.permits-per-second:20}") double writeRate,
+            @Value("${library.rate-limit.write.burst:50}") int writeBurst,
+            @Value("${library.rate-limit.maximum-keys:100000}") long maximumKeys) {
+        return new RateLimitFilter(
+            new RateLimiter(readRate, readBurst, maximumKeys),
+            new RateLimiter(writeRate, writeBurst, maximumKeys),
+            meterRegistry);
+    }
+    
+    /**
+     * Keeps Spring Boot from also registering the filter with the servlet container.
+     */
+    @Bean
+    public FilterRegistrationBean<RateLimitFilter> rateLimitFilterRegistration(RateLimitFilter filter) {
+        FilterRegistrationBean<RateLimitFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.setEnabled(false);
+        return registration;
+    }
+    
+    /**
+     * Caps borrow and return requests in flight, the write path through
+     * {@code LibraryService}, at a multiple of the connection pool size. They take row locks
+     * and hold their connection for the whole transaction, so a surge of them would
+     * otherwise starve every other request of connections. Requests over the cap wait up to
+     * {@code acquire-timeout} and are then answered with 503.
+     */
+    @Bean
+    public FilterRegistrationBean<ConcurrencyLimitFilter> writeConcurrencyLimitFilter(
+            DataSource dataSource,
+            MeterRegistry meterRegistry,
+            @Value("${library.rate-limit.write-concurrency.requests-per-connection:1}") int requestsPerConnection,
+            @Value("${library.rate-limit.write-concurrency.acquire-timeout:500ms}") Duration acquireTimeout) {
+        int limit = ConcurrencyLimitFilter.limitFor(dataSource, requestsPerConnection);
+        FilterRegistrationBean<ConcurrencyLimitFilter> registration = new FilterRegistrationBean<>(
+            new ConcurrencyLimitFilter(limit, acquireTimeout, meterRegistry, "write_concurrency", "library.writes.in_flight"));
+        registration.addUrlPatterns("/api/borrow/*", "/api/return/*");
+        return registration;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,83 @@
+package com.reply.library.config;
+
+import com.reply.library.util.RateLimiter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limits how fast each caller may send API requests, so one busy integration cannot use up
+ * the connection pool for everyone else. Callers are told apart by their authenticated
+ * name, which is the JWT subject for bearer tokens, or by client address before they have
+ * signed in. Reads and writes draw from separate buckets, so a client polling the catalog
+ * does not lose the ability to borrow. Requests over the limit are answered with 429 and a
+ * {@code Retry-After} header.
+ * <p>
+ * Runs inside the Spring Security chain, right after bearer token authentication.
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+    
+    private static final Set<String> READ_METHODS = Set.of("GET", "HEAD", "OPTIONS");
+    
+    private final RateLimiter reads;
+    private final RateLimiter writes;
+    private final Counter readsRejected;
+    private final Counter writesRejected;
+    
+    public RateLimitFilter(RateLimiter reads, RateLimiter writes, MeterRegistry meterRegistry) {
+        this.reads = reads;
+        this.writes = writes;
+        this.readsRejected = meterRegistry.counter("library.requests.rejected", "reason", "read_rate");
+        this.writesRejected = meterRegistry.counter("library.requests.rejected", "reason", "write_rate");
+        Gauge.builder("library.ratelimit.keys", this, f -> f.reads.trackedKeys() + f.writes.trackedKeys())
+            .description("Callers with a rate limit bucket in memory")
+            .register(meterRegistry);
+    }
+    
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return !path.startsWith("/api/") && !path.startsWith("/auth/");
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        boolean read = READ_METHODS.contains(request.getMethod());
+        long wait = (read ? reads : writes).tryAcquire(callerOf(request));
+        if (wait > 0) {
+            (read ? readsRejected : writesRejected).increment();
+            long retryAfter = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(wait + TimeUnit.SECONDS.toNanos(1) - 1));
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfter));
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getWriter().write("{\"status\":429,\"message\":\"Too many requests, please retry later\"}");
+            return;
+        }
+        chain.doFilter(request, response);
+    }
+    
+    private static String callerOf(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated()
+                && !(authentication instanceof AnonymousAuthenticationToken)) {
+            return "user:" + authentication.getName();
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+}
\ No newline at end of file
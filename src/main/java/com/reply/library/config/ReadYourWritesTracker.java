@@ -0,0 +1,52 @@
+package com.reply.library.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Remembers which users changed data in the last {@code window}, so their reads are served
+ * by the primary until the replica has caught up with their write. Keyed by the
+ * authenticated principal; anonymous callers are never pinned, as they would all share one
+ * key. Recorded by borrows, returns, and book and member creates, updates and deletes.
+ */
+@Component
+public class ReadYourWritesTracker {
+    
+    private final Cache<String, Boolean> recentWriters;
+    
+    public ReadYourWritesTracker(@Value("${library.datasource.replica.read-your-writes-window:5s}") Duration window) {
+        this.recentWriters = Caffeine.newBuilder()
+            .maximumSize(100_000)
+            .expireAfterWrite(window)
+            .build();
+    }
+    
+    public void recordWrite() {
+        String principal = currentPrincipal();
+        if (principal != null) {
+            recentWriters.put(principal, Boolean.TRUE);
+        }
+    }
+    
+    public boolean isSticky() {
+        String principal = currentPrincipal();
+        return principal != null && recentWriters.getIfPresent(principal) != null;
+    }
+    
+    private static String currentPrincipal() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        // anonymous tokens count as authenticated, and all share the name "anonymousUser"
+        if (authentication == null || !authentication.isAuthenticated()
+                || authentication instanceof AnonymousAuthenticationToken) {
+            return null;
+        }
+        return authentication.getName();
+    }
+}
\ No newline at end of file
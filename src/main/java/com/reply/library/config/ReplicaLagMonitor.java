@@ -0,0 +1,85 @@
+package com.reply.library.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how far the replica is behind by writing a timestamp to a heartbeat row on the
+ * primary and reading it back from the replica. This works the same on MySQL and H2 and
+ * does not need replication privileges. Until the first successful check, and whenever the
+ * lag exceeds {@code maxLag} or the replica cannot be reached, reads stay on the primary.
+ */
+public class ReplicaLagMonitor {
+    
+    private static final Logger log = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+    
+    private final JdbcTemplate primary;
+    private final JdbcTemplate replica;
+    private final Duration maxLag;
+    
+    private volatile boolean replicaUsable;
+    private volatile long lagMillis = -1;
+    private boolean heartbeatTableReady;
+    
+    public ReplicaLagMonitor(DataSource primary, DataSource replica, Duration maxLag, MeterRegistry meterRegistry) {
+        this.primary = new JdbcTemplate(primary);
+        this.replica = new JdbcTemplate(replica);
+        this.maxLag = maxLag;
+        TimeGauge.builder("library.replica.lag", this, TimeUnit.MILLISECONDS, m -> m.lagMillis)
+            .description("Replica lag at the last check, -1 if the replica could not be read")
+            .register(meterRegistry);
+        Gauge.builder("library.replica.usable", this, m -> m.replicaUsable ? 1 : 0)
+            .register(meterRegistry);
+    }
+    
+    public boolean isReplicaUsable() {
+        return replicaUsable;
+    }
+    
+    public long getLagMillis() {
+        return lagMillis;
+    }
+    
+    @Scheduled(fixedDelayString = "${library.datasource.replica.lag-check-interval:PT5S}")
+    public void check() {
+        long now = System.currentTimeMillis();
+        boolean usable;
+        try {
+            beat(now);
+            Long seen = replica.queryForObject("select beat_at from replica_heartbeat where id = 1", Long.class);
+            lagMillis = seen == null ? -1 : Math.max(0, now - seen);
+            usable = seen != null && lagMillis <= maxLag.toMillis();
+        } catch (DataAccessException ex) {
+            lagMillis = -1;
+            usable = false;
+            if (replicaUsable) {
+                log.warn("Replica check failed, routing reads to the primary", ex);
+            }
+        }
+        
+        if (usable != replicaUsable) {
+            log.info("Replica {} (lag {} ms)", usable ? "back in rotation" : "out of rotation", lagMillis);
+        }
+        replicaUsable = usable;
+    }
+    
+    private void beat(long now) {
+        if (!heartbeatTableReady) {
+            primary.execute("create table if not exists replica_heartbeat (id int not null primary key, beat_at bigint not null)");
+            heartbeatTableReady = true;
+        }
+        if (primary.update("update replica_heartbeat set beat_at = ? where id = 1", now) == 0) {
+            primary.update("insert into replica_heartbeat (id, beat_at) values (1, ?)", now);
+        }
+    }
+}
\ No newline at end of file
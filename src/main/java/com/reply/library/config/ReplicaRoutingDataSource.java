@@ -0,0 +1,67 @@
+package com.reply.library.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Sends connections for read-only transactions to the replica and everything else to the
+ * primary. The replica is skipped while {@link ReplicaLagMonitor} reports it as too far
+ * behind or unreachable, and for callers that wrote recently (see
+ * {@link ReadYourWritesTracker}), so they read their own changes, and for reads run through
+ * {@link #onPrimary(Supplier)}.
+ * <p>
+ * The read-only flag is only known once the transaction has started, so this must sit
+ * behind a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}
+ * that defers fetching the connection until the first statement.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+    
+    public enum Target { PRIMARY, REPLICA }
+    
+    private static final ThreadLocal<Boolean> PRIMARY_ONLY = new ThreadLocal<>();
+    
+    private final ReplicaLagMonitor lagMonitor;
+    private final ReadYourWritesTracker readYourWrites;
+    
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica,
+                                    ReplicaLagMonitor lagMonitor, ReadYourWritesTracker readYourWrites) {
+        this.lagMonitor = lagMonitor;
+        this.readYourWrites = readYourWrites;
+        setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+    
+    /**
+     * Runs {@code read} with its read-only transactions on the primary. For reads whose result
+     * outlives the request, such as cache fills, or is compared against what a client holds,
+     * such as ETag versions: a lagging replica would keep serving, or confirm, the row from
+     * before a committed change. Only transactions started inside {@code read} are affected.
+     */
+    public static <T> T onPrimary(Supplier<T> read) {
+        Boolean outer = PRIMARY_ONLY.get();
+        PRIMARY_ONLY.set(Boolean.TRUE);
+        try {
+            return read.get();
+        } finally {
+            if (outer == null) {
+                PRIMARY_ONLY.remove();
+            }
+        }
+    }
+    
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                && PRIMARY_ONLY.get() == null
+                && lagMonitor.isReplicaUsable()
+                && !readYourWrites.isSticky()) {
+            return Target.REPLICA;
+        }
+        return Target.PRIMARY;
+    }
+}
\ No newline at end of file
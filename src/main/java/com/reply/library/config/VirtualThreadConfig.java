@@ -0,0 +1,34 @@
+package com.reply.library.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Extra wiring for the virtual-thread execution mode ({@code spring.threads.virtual.enabled}).
+ * Spring Boot moves Tomcat and the task executors onto virtual threads by itself; this
+ * adds the limiter that takes over the role the bounded Tomcat thread pool used to play.
+ */
+@Configuration
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadConfig {
+    
+    @Bean
+    public FilterRegistrationBean<ConcurrencyLimitFilter> concurrencyLimitFilter(
+            DataSource dataSource,
+            MeterRegistry meterRegistry,
+            @Value("${library.concurrency.requests-per-connection:4}") int requestsPerConnection,
+            @Value("${library.concurrency.acquire-timeout:1s}") Duration acquireTimeout) {
+        int limit = ConcurrencyLimitFilter.limitFor(dataSource, requestsPerConnection);
+        FilterRegistrationBean<ConcurrencyLimitFilter> registration =
+            new FilterRegistrationBean<>(new ConcurrencyLimitFilter(limit, acquireTimeout, meterRegistry));
+        registration.addUrlPatterns("/api/*");
+        return registration;
+    }
+}
\ No newline at end of file
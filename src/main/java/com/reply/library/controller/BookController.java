@@ -1,17 +1,42 @@
 package com.reply.library.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.reply.library.dto.BookDTO;
+import com.reply.library.dto.CursorPageDTO;
+import com.reply.library.dto.LookupRequest;
+import com.reply.library.dto.LookupResultDTO;
+import com.reply.library.dto.PageDTO;
+import com.reply.library.service.BookChangeFeed;
+import com.reply.library.service.BookImportService;
 import com.reply.library.service.BookService;
+import com.reply.library.util.BookImportReader;
+import com.reply.library.util.CursorCodec;
+import com.reply.library.util.EntityTags;
+import com.reply.library.util.FieldSelection;
+import com.reply.library.util.NdjsonWriter;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.web.HttpMediaTypeNotSupportedException;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+
 @RestController
 @RequestMapping("/api/books")
 public class BookController {
@@ -19,25 +44,182 @@ public class BookController {
     @Autowired
     private BookService bookService;
     
+    @Autowired
+    private BookImportService bookImportService;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private BookChangeFeed changeFeed;
+    
+    @Value("${library.changes.timeout:PT30M}")
+    private Duration changeFeedTimeout = Duration.ofMinutes(30);
+    
     @PostMapping
     public ResponseEntity<BookDTO> createBook(@Valid @RequestBody BookDTO bookDTO) {
         BookDTO createdBook = bookService.createBook(bookDTO);
         return new ResponseEntity<>(createdBook, HttpStatus.CREATED);
     }
     
+    /**
+     * Streams a catalog import given as NDJSON or CSV. The response is NDJSON: one progress
+     * line per committed chunk, then a final line with {@code "done": true} and any row
+     * errors. A response without the final line means the import was cut short. A CSV
+     * header without title, author and isbn columns is rejected with 400 before streaming.
+     */
+    @PostMapping(value = "/import", consumes = {MediaType.APPLICATION_NDJSON_VALUE, "text/csv"},
+                 produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> importBooks(HttpServletRequest request)
+            throws IOException, HttpMediaTypeNotSupportedException {
+        if (request.getContentType() == null) {
+            throw new HttpMediaTypeNotSupportedException("Content-Type is required");
+        }
+        MediaType contentType = MediaType.parseMediaType(request.getContentType());
+        BookImportReader reader = BookImportReader.open(contentType, request.getInputStream(), objectMapper);
+        StreamingResponseBody response = out -> {
+            NdjsonWriter writer = new NdjsonWriter(out, objectMapper);
+            try (reader) {
+                bookImportService.importBooks(reader, progress -> {
+                    writer.write(progress);
+                    writer.flush();
+                });
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(response);
+    }
+    
+    /**
+     * Pass {@code fields}, e.g. {@code fields=id,borrowed}, to get only those properties of
+     * each book; only their columns are read. The same applies to the keyset listing and to
+     * single books. Every read endpoint answers in CBOR for {@code Accept: application/cbor}.
+     * <p>
+     * Pages carry an ETag built from the versions of the books on them; a matching
+     * {@code If-None-Match} is answered with 304 and the page is not written.
+     */
     @GetMapping
-    public ResponseEntity<Page<BookDTO>> getAllBooks(
+    public ResponseEntity<MappingJacksonValue> getAllBooks(
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String fields,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        FieldSelection selection = FieldSelection.parse(fields, BookService.FIELDS.names());
         Pageable pageable = PageRequest.of(page, size);
-        Page<BookDTO> books = bookService.getAllBooks(pageable);
+        Page<BookDTO> books = bookService.getAllBooks(pageable, selection.getFields());
+        String etag = listTag(books.getContent(), fields, accept)
+            .add(books.getTotalElements())
+            .build();
+        return EntityTags.ok(etag, null).body(selection.apply(PageDTO.of(books)));
+    }
+    
+    /**
+     * Dumps the whole catalog as NDJSON in id order, streamed straight from the database.
+     */
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportBooks() {
+        StreamingResponseBody response = out -> {
+            NdjsonWriter writer = new NdjsonWriter(out, objectMapper);
+            bookService.forEachBook(writer::write);
+            writer.flush();
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(response);
+    }
+    
+    /**
+     * Keyset pagination: pass {@code after} empty for the first page, then the {@code next}
+     * token of each response. Latency stays flat however deep the page; the total is only
+     * counted when {@code count=true}.
+     */
+    @GetMapping(params = "after")
+    public ResponseEntity<MappingJacksonValue> getBooksAfter(
+            @RequestParam String after,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "false") boolean count,
+            @RequestParam(required = false) String fields,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        if (size < 1 || size > 1000) {
+            throw new IllegalArgumentException("Page size must be between 1 and 1000");
+        }
+        FieldSelection selection = FieldSelection.parse(fields, BookService.FIELDS.names());
+        long afterId = after.isEmpty() ? 0L : CursorCodec.decode(after, 1)[0];
+        CursorPageDTO<BookDTO> books = bookService.getBooksAfter(afterId, size, count, selection.getFields());
+        String etag = listTag(books.getContent(), fields, accept)
+            .add(books.getNext())
+            .add(books.getTotal() == null ? -1L : books.getTotal())
+            .build();
+        return EntityTags.ok(etag, null).body(selection.apply(books));
+    }
+    
+    /**
+     * Resolves up to 5000 ids and 5000 ISBNs in one call, for clients that would otherwise
+     * fetch a basket or a sync batch one book at a time.
+     */
+    @PostMapping("/lookup")
+    public ResponseEntity<LookupResultDTO<BookDTO>> lookupBooks(@Valid @RequestBody LookupRequest request) {
+        if (request.getIds() == null && request.getIsbns() == null) {
+            throw new IllegalArgumentException("Either ids or isbns is required");
+        }
+        LookupResultDTO<BookDTO> books = bookService.lookupBooks(request.getIds(), request.getIsbns());
+        return ResponseEntity.ok(books);
+    }
+    
+    /**
+     * Ranked search over titles and authors; the last word may be a prefix. Set
+     * {@code available} to only get books that are (or are not) on the shelf.
+     */
+    @GetMapping("/search")
+    public ResponseEntity<List<BookDTO>> searchBooks(
+            @RequestParam String q,
+            @RequestParam(required = false) Boolean available,
+            @RequestParam(defaultValue = "20") int limit) {
+        if (limit < 1 || limit > 100) {
+            throw new IllegalArgumentException("Limit must be between 1 and 100");
+        }
+        List<BookDTO> books = bookService.searchBooks(q, available, limit);
         return ResponseEntity.ok(books);
     }
     
+    /**
+     * Server-Sent Events feed of committed changes, so clients stop polling single books.
+     * Pass {@code ids} to only hear about those books. Each event id is a sequence number;
+     * browsers send it back as {@code Last-Event-ID} when they reconnect and the changes they
+     * missed are replayed. A {@code reset} event means changes were lost and the client
+     * should reload what it shows.
+     */
+    @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(
+            @RequestParam(required = false) Set<Long> ids,
+            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        if (ids != null && (ids.isEmpty() || ids.size() > 1000)) {
+            throw new IllegalArgumentException("Between 1 and 1000 book ids can be watched");
+        }
+        return changeFeed.subscribe(ids, lastEventId, changeFeedTimeout.toMillis());
+    }
+    
+    /**
+     * The whole book is still loaded, as it is served from the cache; {@code fields} only
+     * narrows what is written.
+     * <p>
+     * A conditional request is first checked against the book's version alone, taken from
+     * the cache or read by primary key, and answered with 304 without loading the book if
+     * its ETag still matches.
+     */
     @GetMapping("/{id}")
-    public ResponseEntity<BookDTO> getBookById(@PathVariable Long id) {
+    public ResponseEntity<MappingJacksonValue> getBookById(
+            @PathVariable Long id,
+            @RequestParam(required = false) String fields,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        FieldSelection selection = FieldSelection.parse(fields, BookService.FIELDS.names());
+        if (ifNoneMatch != null) {
+            String etag = bookTag(id, bookService.getBookVersion(id), fields, accept);
+            if (EntityTags.matches(ifNoneMatch, etag)) {
+                return EntityTags.notModified(etag);
+            }
+        }
         BookDTO book = bookService.getBookById(id);
-        return ResponseEntity.ok(book);
+        String etag = bookTag(id, book.getVersion(), fields, accept);
+        return EntityTags.ok(etag, book.getUpdatedAt()).body(selection.apply(book));
     }
     
     @PutMapping("/{id}")
@@ -51,4 +233,16 @@ public class BookController {
         bookService.deleteBook(id);
         return ResponseEntity.noContent().build();
     }
+    
+    private static String bookTag(Long id, long version, String fields, String accept) {
+        return EntityTags.builder("book").add(id).add(version).add(fields).add(accept).build();
+    }
+    
+    private static EntityTags.Builder listTag(List<BookDTO> books, String fields, String accept) {
+        EntityTags.Builder tag = EntityTags.builder("books").add(fields).add(accept).add(books.size());
+        for (BookDTO book : books) {
+            tag.add(book.getId()).add(book.getVersion());
+        }
+        return tag;
+    }
 }
\ No newline at end of file
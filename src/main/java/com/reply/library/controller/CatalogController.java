@@ -0,0 +1,74 @@
+package com.reply.library.controller;
+
+import com.reply.library.dto.BookDTO;
+import com.reply.library.dto.MemberDTO;
+import com.reply.library.dto.PageDTO;
+import com.reply.library.service.CatalogService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+import io.swagger.v3.oas.annotations.Operation;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Asynchronous variant of the catalog read endpoints. Responses are identical to
+ * {@code GET /api/books}, {@code /api/books/{id}} and {@code /api/members/{id}}, but the
+ * request thread is handed back to Tomcat while the read runs, so a node can keep many more
+ * read connections open than it has request threads.
+ * <p>
+ * A read not answered within {@code library.catalog.timeout}, typically because it is
+ * still queued behind others, gets a 503.
+ */
+@RestController
+@RequestMapping("/api/catalog")
+public class CatalogController {
+    
+    @Autowired
+    private CatalogService catalogService;
+    
+    @Value("${library.catalog.timeout:10s}")
+    private Duration timeout = Duration.ofSeconds(10);
+    
+    @Operation(summary = "List books", description = "Asynchronous variant of GET /api/books")
+    @GetMapping("/books")
+    public DeferredResult<ResponseEntity<PageDTO<BookDTO>>> getAllBooks(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size) {
+        return withTimeout(catalogService.getAllBooks(PageRequest.of(page, size))
+            .thenApply(books -> ResponseEntity.ok(PageDTO.of(books))));
+    }
+    
+    @Operation(summary = "Get a book", description = "Asynchronous variant of GET /api/books/{id}")
+    @GetMapping("/books/{id}")
+    public DeferredResult<ResponseEntity<BookDTO>> getBookById(@PathVariable Long id) {
+        return withTimeout(catalogService.getBookById(id).thenApply(ResponseEntity::ok));
+    }
+    
+    @Operation(summary = "Get a member", description = "Asynchronous variant of GET /api/members/{id}")
+    @GetMapping("/members/{id}")
+    public DeferredResult<ResponseEntity<MemberDTO>> getMemberById(@PathVariable Long id) {
+        return withTimeout(catalogService.getMemberById(id).thenApply(ResponseEntity::ok));
+    }
+    
+    /**
+     * Completes with the read, or with {@code AsyncRequestTimeoutException} (503) once the
+     * timeout passes. A late read still runs, but its result is dropped.
+     */
+    private <T> DeferredResult<T> withTimeout(CompletableFuture<T> read) {
+        DeferredResult<T> result = new DeferredResult<>(timeout.toMillis());
+        read.whenComplete((value, ex) -> {
+            if (ex == null) {
+                result.setResult(value);
+            } else {
+                result.setErrorResult(ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex);
+            }
+        });
+        return result;
+    }
+}
\ No newline at end of file
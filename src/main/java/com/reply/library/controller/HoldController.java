@@ -0,0 +1,85 @@
+package com.reply.library.controller;
+
+import com.reply.library.dto.HoldDTO;
+import com.reply.library.dto.HoldRequest;
+import com.reply.library.exception.ResourceNotFoundException;
+import com.reply.library.service.HoldNotifier;
+import com.reply.library.service.HoldService;
+import com.reply.library.service.LibraryService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+
+import jakarta.validation.Valid;
+
+@RestController
+@RequestMapping("/api")
+public class HoldController {
+    
+    @Autowired
+    private LibraryService libraryService;
+    
+    @Autowired
+    private HoldService holdService;
+    
+    @Autowired
+    private HoldNotifier holdNotifier;
+    
+    @Operation(summary = "Place a hold", description = "Queue a member for a book that is currently borrowed")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "201", description = "Hold placed"),
+        @ApiResponse(responseCode = "400", description = "Member not found"),
+        @ApiResponse(responseCode = "404", description = "Book not found"),
+        @ApiResponse(responseCode = "409", description = "Book is available or member already queued")
+    })
+    @PostMapping("/books/{bookId}/holds")
+    public ResponseEntity<HoldDTO> placeHold(
+            @Parameter(description = "ID of the book to reserve") @PathVariable Long bookId,
+            @Valid @RequestBody HoldRequest request) {
+        HoldDTO hold = libraryService.placeHold(bookId, request.getMemberId());
+        return new ResponseEntity<>(hold, HttpStatus.CREATED);
+    }
+    
+    @GetMapping("/holds/{holdId}")
+    public ResponseEntity<HoldDTO> getHold(@PathVariable Long holdId) {
+        return ResponseEntity.ok(holdService.getHold(holdId));
+    }
+    
+    @Operation(summary = "Wait for a hold",
+               description = "Long poll: answers as soon as the hold is fulfilled or cancelled, or with 204 after the timeout")
+    @GetMapping("/holds/{holdId}/wait")
+    public DeferredResult<HoldDTO> awaitHold(
+            @PathVariable Long holdId,
+            @Parameter(description = "Seconds to wait, 1 to 60") @RequestParam(defaultValue = "30") int timeout) {
+        if (timeout < 1 || timeout > 60) {
+            throw new IllegalArgumentException("Timeout must be between 1 and 60 seconds");
+        }
+        
+        DeferredResult<HoldDTO> result = new DeferredResult<>(timeout * 1000L);
+        result.onTimeout(() -> result.setErrorResult(ResponseEntity.noContent().build()));
+        
+        // register before reading, so a fulfilment in between is not missed
+        holdNotifier.await(holdId, result);
+        try {
+            HoldDTO current = holdService.getHold(holdId);
+            if (current.getStatus() != HoldDTO.Status.WAITING) {
+                result.setResult(current);
+            }
+        } catch (ResourceNotFoundException ex) {
+            result.setErrorResult(ex);
+        }
+        return result;
+    }
+    
+    @DeleteMapping("/holds/{holdId}")
+    public ResponseEntity<Void> cancelHold(@PathVariable Long holdId) {
+        holdService.cancelHold(holdId);
+        return ResponseEntity.noContent().build();
+    }
+}
\ No newline at end of file
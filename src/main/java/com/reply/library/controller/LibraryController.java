@@ -1,5 +1,8 @@
 package com.reply.library.controller;
 
+import com.reply.library.dto.BatchBorrowRequest;
+import com.reply.library.dto.BatchResultDTO;
+import com.reply.library.dto.BatchReturnRequest;
 import com.reply.library.service.LibraryService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
@@ -9,6 +12,8 @@ import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 
+import jakarta.validation.Valid;
+
 @RestController
 @RequestMapping("/api")
 public class LibraryController {
@@ -45,4 +50,28 @@ public class LibraryController {
         libraryService.returnBook(bookId);
         return ResponseEntity.ok("Book returned successfully");
     }
+    
+    @Operation(summary = "Borrow several books", description = "Borrow a basket of books for one member in a single request")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Per-book results; individual books may have failed"),
+        @ApiResponse(responseCode = "400", description = "Member not found or invalid request"),
+        @ApiResponse(responseCode = "409", description = "Books changed concurrently, nothing was borrowed")
+    })
+    @PostMapping("/borrow/batch")
+    public ResponseEntity<BatchResultDTO> borrowBooks(@Valid @RequestBody BatchBorrowRequest request) {
+        BatchResultDTO result = libraryService.borrowBooks(request.getMemberId(), request.getBookIds());
+        return ResponseEntity.ok(result);
+    }
+    
+    @Operation(summary = "Return several books", description = "Return a basket of borrowed books in a single request")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Per-book results; individual books may have failed"),
+        @ApiResponse(responseCode = "400", description = "Invalid request"),
+        @ApiResponse(responseCode = "409", description = "Books changed concurrently, nothing was returned")
+    })
+    @PostMapping("/return/batch")
+    public ResponseEntity<BatchResultDTO> returnBooks(@Valid @RequestBody BatchReturnRequest request) {
+        BatchResultDTO result = libraryService.returnBooks(request.getBookIds());
+        return ResponseEntity.ok(result);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,39 @@
+package com.reply.library.controller;
+
+import com.reply.library.dto.CursorPageDTO;
+import com.reply.library.dto.LoanDTO;
+import com.reply.library.service.LoanService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api")
+public class LoanController {
+    
+    @Autowired
+    private LoanService loanService;
+    
+    @Operation(summary = "Books a member has out", description = "Open loans of a member, earliest due date first")
+    @GetMapping("/members/{memberId}/loans")
+    public ResponseEntity<List<LoanDTO>> getOpenLoans(
+            @Parameter(description = "ID of the member") @PathVariable Long memberId) {
+        return ResponseEntity.ok(loanService.getOpenLoans(memberId));
+    }
+    
+    @Operation(summary = "Overdue loans", description = "Open loans past their due date, oldest first, in keyset pages")
+    @GetMapping("/loans/overdue")
+    public ResponseEntity<CursorPageDTO<LoanDTO>> getOverdueLoans(
+            @Parameter(description = "next token of the previous page, empty for the first page")
+            @RequestParam(defaultValue = "") String after,
+            @RequestParam(defaultValue = "100") int size) {
+        if (size < 1 || size > 1000) {
+            throw new IllegalArgumentException("Page size must be between 1 and 1000");
+        }
+        return ResponseEntity.ok(loanService.getOverdueLoans(after, size));
+    }
+}
\ No newline at end of file
@@ -1,17 +1,32 @@
 package com.reply.library.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.reply.library.dto.CursorPageDTO;
+import com.reply.library.dto.LookupRequest;
+import com.reply.library.dto.LookupResultDTO;
 import com.reply.library.dto.MemberDTO;
+import com.reply.library.dto.PageDTO;
 import com.reply.library.service.MemberService;
+import com.reply.library.util.CursorCodec;
+import com.reply.library.util.EntityTags;
+import com.reply.library.util.FieldSelection;
+import com.reply.library.util.NdjsonWriter;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJacksonValue;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import jakarta.validation.Valid;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/api/members")
 public class MemberController {
@@ -19,25 +34,105 @@ public class MemberController {
     @Autowired
     private MemberService memberService;
     
+    @Autowired
+    private ObjectMapper objectMapper;
+    
     @PostMapping
     public ResponseEntity<MemberDTO> createMember(@Valid @RequestBody MemberDTO memberDTO) {
         MemberDTO createdMember = memberService.createMember(memberDTO);
         return new ResponseEntity<>(createdMember, HttpStatus.CREATED);
     }
     
+    /**
+     * Pass {@code fields}, e.g. {@code fields=id,name}, to get only those properties of each
+     * member; only their columns are read. Pages carry an ETag, as in {@link BookController}.
+     */
     @GetMapping
-    public ResponseEntity<Page<MemberDTO>> getAllMembers(
+    public ResponseEntity<MappingJacksonValue> getAllMembers(
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String fields,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        FieldSelection selection = FieldSelection.parse(fields, MemberService.FIELDS.names());
         Pageable pageable = PageRequest.of(page, size);
-        Page<MemberDTO> members = memberService.getAllMembers(pageable);
+        Page<MemberDTO> members = memberService.getAllMembers(pageable, selection.getFields());
+        String etag = listTag(members.getContent(), fields, accept)
+            .add(members.getTotalElements())
+            .build();
+        return EntityTags.ok(etag, null).body(selection.apply(PageDTO.of(members)));
+    }
+    
+    /**
+     * Dumps all members as NDJSON in id order, streamed straight from the database.
+     */
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportMembers() {
+        StreamingResponseBody response = out -> {
+            NdjsonWriter writer = new NdjsonWriter(out, objectMapper);
+            memberService.forEachMember(writer::write);
+            writer.flush();
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(response);
+    }
+    
+    /**
+     * Keyset pagination: pass {@code after} empty for the first page, then the {@code next}
+     * token of each response. Latency stays flat however deep the page; the total is only
+     * counted when {@code count=true}.
+     */
+    @GetMapping(params = "after")
+    public ResponseEntity<MappingJacksonValue> getMembersAfter(
+            @RequestParam String after,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "false") boolean count,
+            @RequestParam(required = false) String fields,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        if (size < 1 || size > 1000) {
+            throw new IllegalArgumentException("Page size must be between 1 and 1000");
+        }
+        FieldSelection selection = FieldSelection.parse(fields, MemberService.FIELDS.names());
+        long afterId = after.isEmpty() ? 0L : CursorCodec.decode(after, 1)[0];
+        CursorPageDTO<MemberDTO> members = memberService.getMembersAfter(afterId, size, count, selection.getFields());
+        String etag = listTag(members.getContent(), fields, accept)
+            .add(members.getNext())
+            .add(members.getTotal() == null ? -1L : members.getTotal())
+            .build();
+        return EntityTags.ok(etag, null).body(selection.apply(members));
+    }
+    
+    /**
+     * Resolves up to 5000 member ids in one call.
+     */
+    @PostMapping("/lookup")
+    public ResponseEntity<LookupResultDTO<MemberDTO>> lookupMembers(@Valid @RequestBody LookupRequest request) {
+        if (request.getIds() == null || request.getIsbns() != null) {
+            throw new IllegalArgumentException("Members are looked up by ids only");
+        }
+        LookupResultDTO<MemberDTO> members = memberService.lookupMembers(request.getIds());
         return ResponseEntity.ok(members);
     }
     
+    /**
+     * {@code fields} only narrows what is written; the member itself comes from the cache.
+     * Conditional requests are checked against the version alone first; see
+     * {@link BookController}.
+     */
     @GetMapping("/{id}")
-    public ResponseEntity<MemberDTO> getMemberById(@PathVariable Long id) {
+    public ResponseEntity<MappingJacksonValue> getMemberById(
+            @PathVariable Long id,
+            @RequestParam(required = false) String fields,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        FieldSelection selection = FieldSelection.parse(fields, MemberService.FIELDS.names());
+        if (ifNoneMatch != null) {
+            String etag = memberTag(id, memberService.getMemberVersion(id), fields, accept);
+            if (EntityTags.matches(ifNoneMatch, etag)) {
+                return EntityTags.notModified(etag);
+            }
+        }
         MemberDTO member = memberService.getMemberById(id);
-        return ResponseEntity.ok(member);
+        String etag = memberTag(id, member.getVersion(), fields, accept);
+        return EntityTags.ok(etag, member.getUpdatedAt()).body(selection.apply(member));
     }
     
     @PutMapping("/{id}")
@@ -51,4 +146,16 @@ public class MemberController {
         memberService.deleteMember(id);
         return ResponseEntity.noContent().build();
     }
+    
+    private static String memberTag(Long id, long version, String fields, String accept) {
+        return EntityTags.builder("member").add(id).add(version).add(fields).add(accept).build();
+    }
+    
+    private static EntityTags.Builder listTag(List<MemberDTO> members, String fields, String accept) {
+        EntityTags.Builder tag = EntityTags.builder("members").add(fields).add(accept).add(members.size());
+        for (MemberDTO member : members) {
+            tag.add(member.getId()).add(member.getVersion());
+        }
+        return tag;
+    }
 }
\ No newline at end of file
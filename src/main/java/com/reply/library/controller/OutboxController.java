@@ -0,0 +1,31 @@
+package com.reply.library.controller;
+
+import com.reply.library.dto.CursorPageDTO;
+import com.reply.library.dto.OutboxEventDTO;
+import com.reply.library.service.OutboxService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+
+@RestController
+@RequestMapping("/api/events")
+public class OutboxController {
+    
+    @Autowired
+    private OutboxService outboxService;
+    
+    @Operation(summary = "Change stream",
+               description = "Book and member changes in commit order. Keep the next token and pass it as after on the next call")
+    @GetMapping
+    public ResponseEntity<CursorPageDTO<OutboxEventDTO>> getEvents(
+            @Parameter(description = "next token of the previous call, empty to start from the oldest retained event")
+            @RequestParam(defaultValue = "") String after,
+            @RequestParam(defaultValue = "500") int size) {
+        if (size < 1 || size > 1000) {
+            throw new IllegalArgumentException("Page size must be between 1 and 1000");
+        }
+        return ResponseEntity.ok(outboxService.getEventsAfter(after, size));
+    }
+}
\ No newline at end of file
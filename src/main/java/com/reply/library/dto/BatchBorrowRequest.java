@@ -0,0 +1,31 @@
+package com.reply.library.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public class BatchBorrowRequest {
+    @NotNull(message = "Member id is required")
+    private Long memberId;
+    
+    @NotEmpty(message = "At least one book id is required")
+    @Size(max = 100, message = "At most 100 books can be borrowed at once")
+    private List<@NotNull Long> bookIds;
+    
+    // Constructors
+    public BatchBorrowRequest() {}
+    
+    public BatchBorrowRequest(Long memberId, List<Long> bookIds) {
+        this.memberId = memberId;
+        this.bookIds = bookIds;
+    }
+    
+    // Getters and Setters
+    public Long getMemberId() { return memberId; }
+    public void setMemberId(Long memberId) { this.memberId = memberId; }
+    
+    public List<Long> getBookIds() { return bookIds; }
+    public void setBookIds(List<Long> bookIds) { this.bookIds = bookIds; }
+}
\ No newline at end of file
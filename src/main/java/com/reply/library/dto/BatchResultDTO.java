@@ -0,0 +1,58 @@
+package com.reply.library.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Per-item outcome of a batch borrow or return, in request order.
+ */
+public class BatchResultDTO {
+    
+    public enum Status { SUCCESS, CONFLICT, NOT_FOUND }
+    
+    private List<ItemResult> results = new ArrayList<>();
+    private int succeeded;
+    private int failed;
+    
+    public void add(Long bookId, Status status, String message) {
+        results.add(new ItemResult(bookId, status, message));
+        if (status == Status.SUCCESS) {
+            succeeded++;
+        } else {
+            failed++;
+        }
+    }
+    
+    // Getters and Setters
+    public List<ItemResult> getResults() { return results; }
+    public void setResults(List<ItemResult> results) { this.results = results; }
+    
+    public int getSucceeded() { return succeeded; }
+    public void setSucceeded(int succeeded) { this.succeeded = succeeded; }
+    
+    public int getFailed() { return failed; }
+    public void setFailed(int failed) { this.failed = failed; }
+    
+    public static class ItemResult {
+        private Long bookId;
+        private Status status;
+        private String message;
+        
+        public ItemResult() {}
+        
+        public ItemResult(Long bookId, Status status, String message) {
+            this.bookId = bookId;
+            this.status = status;
+            this.message = message;
+        }
+        
+        public Long getBookId() { return bookId; }
+        public void setBookId(Long bookId) { this.bookId = bookId; }
+        
+        public Status getStatus() { return status; }
+        public void setStatus(Status status) { this.status = status; }
+        
+        public String getMessage() { return message; }
+        public void setMessage(String message) { this.message = message; }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,24 @@
+package com.reply.library.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public class BatchReturnRequest {
+    @NotEmpty(message = "At least one book id is required")
+    @Size(max = 100, message = "At most 100 books can be returned at once")
+    private List<@NotNull Long> bookIds;
+    
+    // Constructors
+    public BatchReturnRequest() {}
+    
+    public BatchReturnRequest(List<Long> bookIds) {
+        this.bookIds = bookIds;
+    }
+    
+    // Getters and Setters
+    public List<Long> getBookIds() { return bookIds; }
+    public void setBookIds(List<Long> bookIds) { this.bookIds = bookIds; }
+}
\ No newline at end of file
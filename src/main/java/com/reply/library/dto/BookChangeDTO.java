@@ -0,0 +1,50 @@
+package com.reply.library.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.Instant;
+
+/**
+ * One entry of the book change feed. {@code borrowed} is only set when the change moved
+ * the book on or off the shelf.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BookChangeDTO {
+    
+    public enum Type { CREATED, UPDATED, DELETED, BORROWED, RETURNED }
+    
+    private long sequence;
+    private Long bookId;
+    private Type type;
+    private Boolean borrowed;
+    private Instant changedAt;
+    
+    // Constructors
+    public BookChangeDTO() {}
+    
+    public BookChangeDTO(long sequence, Long bookId, Type type, Instant changedAt) {
+        this.sequence = sequence;
+        this.bookId = bookId;
+        this.type = type;
+        this.changedAt = changedAt;
+        if (type == Type.BORROWED || type == Type.RETURNED) {
+            this.borrowed = type == Type.BORROWED;
+        }
+    }
+    
+    // Getters and Setters
+    public long getSequence() { return sequence; }
+    public void setSequence(long sequence) { this.sequence = sequence; }
+    
+    public Long getBookId() { return bookId; }
+    public void setBookId(Long bookId) { this.bookId = bookId; }
+    
+    public Type getType() { return type; }
+    public void setType(Type type) { this.type = type; }
+    
+    public Boolean getBorrowed() { return borrowed; }
+    public void setBorrowed(Boolean borrowed) { this.borrowed = borrowed; }
+    
+    public Instant getChangedAt() { return changedAt; }
+    public void setChangedAt(Instant changedAt) { this.changedAt = changedAt; }
+}
\ No newline at end of file
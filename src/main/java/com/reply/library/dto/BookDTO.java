@@ -1,8 +1,11 @@
 package com.reply.library.dto;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Pattern;
 
+import java.time.Instant;
+
 public class BookDTO {
     private Long id;
     
@@ -18,6 +21,12 @@ public class BookDTO {
     
     private boolean borrowed;
     
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long version;
+    
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Instant updatedAt;
+    
     // Constructors
     public BookDTO() {}
     
@@ -27,6 +36,18 @@ public class BookDTO {
         this.isbn = isbn;
     }
     
+    /**
+     * Used by the constructor-expression queries in {@code BookRepository}.
+     */
+    public BookDTO(Long id, String title, String author, String isbn, boolean borrowed,
+                   Long version, Instant updatedAt) {
+        this(title, author, isbn);
+        this.id = id;
+        this.borrowed = borrowed;
+        this.version = version;
+        this.updatedAt = updatedAt;
+    }
+    
     // Getters and Setters
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
@@ -42,4 +63,10 @@ public class BookDTO {
     
     public boolean isBorrowed() { return borrowed; }
     public void setBorrowed(boolean borrowed) { this.borrowed = borrowed; }
+    
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
+    
+    public Instant getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(Instant updatedAt) { this.updatedAt = updatedAt; }
 }
\ No newline at end of file
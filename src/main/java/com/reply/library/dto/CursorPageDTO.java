@@ -0,0 +1,35 @@
+package com.reply.library.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated listing. {@code next} is an opaque token to pass back as
+ * {@code after} for the following page and is absent on the last page; {@code total} is
+ * only filled in when the caller asked for it.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CursorPageDTO<T> {
+    private List<T> content;
+    private String next;
+    private Long total;
+    
+    public CursorPageDTO() {}
+    
+    public CursorPageDTO(List<T> content, String next, Long total) {
+        this.content = content;
+        this.next = next;
+        this.total = total;
+    }
+    
+    // Getters and Setters
+    public List<T> getContent() { return content; }
+    public void setContent(List<T> content) { this.content = content; }
+    
+    public String getNext() { return next; }
+    public void setNext(String next) { this.next = next; }
+    
+    public Long getTotal() { return total; }
+    public void setTotal(Long total) { this.total = total; }
+}
\ No newline at end of file
@@ -0,0 +1,45 @@
+package com.reply.library.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.Instant;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class HoldDTO {
+    
+    public enum Status { WAITING, FULFILLED, CANCELLED }
+    
+    private Long id;
+    private Long bookId;
+    private Long memberId;
+    private Status status;
+    /** 1 for the head of the queue; only set while waiting. */
+    private Long position;
+    private Instant placedAt;
+    private Instant fulfilledAt;
+    
+    // Constructors
+    public HoldDTO() {}
+    
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    
+    public Long getBookId() { return bookId; }
+    public void setBookId(Long bookId) { this.bookId = bookId; }
+    
+    public Long getMemberId() { return memberId; }
+    public void setMemberId(Long memberId) { this.memberId = memberId; }
+    
+    public Status getStatus() { return status; }
+    public void setStatus(Status status) { this.status = status; }
+    
+    public Long getPosition() { return position; }
+    public void setPosition(Long position) { this.position = position; }
+    
+    public Instant getPlacedAt() { return placedAt; }
+    public void setPlacedAt(Instant placedAt) { this.placedAt = placedAt; }
+    
+    public Instant getFulfilledAt() { return fulfilledAt; }
+    public void setFulfilledAt(Instant fulfilledAt) { this.fulfilledAt = fulfilledAt; }
+}
\ No newline at end of file
@@ -0,0 +1,19 @@
+package com.reply.library.dto;
+
+import jakarta.validation.constraints.NotNull;
+
+public class HoldRequest {
+    @NotNull(message = "Member id is required")
+    private Long memberId;
+    
+    // Constructors
+    public HoldRequest() {}
+    
+    public HoldRequest(Long memberId) {
+        this.memberId = memberId;
+    }
+    
+    // Getters and Setters
+    public Long getMemberId() { return memberId; }
+    public void setMemberId(Long memberId) { this.memberId = memberId; }
+}
\ No newline at end of file
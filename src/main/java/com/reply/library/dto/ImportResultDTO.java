@@ -0,0 +1,72 @@
+package com.reply.library.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Running totals of a catalog import. Emitted after every committed chunk and once more,
+ * with {@code done} set and the collected row errors, when the import finishes.
+ */
+@JsonInclude(JsonInclude.Include.NON_EMPTY)
+public class ImportResultDTO {
+    private long processed;
+    private long inserted;
+    private long duplicates;
+    private long rejected;
+    private boolean done;
+    private List<RowError> errors = new ArrayList<>();
+    
+    public ImportResultDTO() {}
+    
+    /**
+     * Copy of the counters without the error list, used for progress lines.
+     */
+    public ImportResultDTO snapshot() {
+        ImportResultDTO copy = new ImportResultDTO();
+        copy.processed = processed;
+        copy.inserted = inserted;
+        copy.duplicates = duplicates;
+        copy.rejected = rejected;
+        copy.done = done;
+        return copy;
+    }
+    
+    // Getters and Setters
+    public long getProcessed() { return processed; }
+    public void setProcessed(long processed) { this.processed = processed; }
+    
+    public long getInserted() { return inserted; }
+    public void setInserted(long inserted) { this.inserted = inserted; }
+    
+    public long getDuplicates() { return duplicates; }
+    public void setDuplicates(long duplicates) { this.duplicates = duplicates; }
+    
+    public long getRejected() { return rejected; }
+    public void setRejected(long rejected) { this.rejected = rejected; }
+    
+    public boolean isDone() { return done; }
+    public void setDone(boolean done) { this.done = done; }
+    
+    public List<RowError> getErrors() { return errors; }
+    public void setErrors(List<RowError> errors) { this.errors = errors; }
+    
+    public static class RowError {
+        private long line;
+        private String message;
+        
+        public RowError() {}
+        
+        public RowError(long line, String message) {
+            this.line = line;
+            this.message = message;
+        }
+        
+        public long getLine() { return line; }
+        public void setLine(long line) { this.line = line; }
+        
+        public String getMessage() { return message; }
+        public void setMessage(String message) { this.message = message; }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,34 @@
+package com.reply.library.dto;
+
+import java.time.Instant;
+
+public class LoanDTO {
+    private Long id;
+    private Long bookId;
+    private Long memberId;
+    private Instant borrowedAt;
+    private Instant dueAt;
+    private Instant returnedAt;
+    
+    // Constructors
+    public LoanDTO() {}
+    
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    
+    public Long getBookId() { return bookId; }
+    public void setBookId(Long bookId) { this.bookId = bookId; }
+    
+    public Long getMemberId() { return memberId; }
+    public void setMemberId(Long memberId) { this.memberId = memberId; }
+    
+    public Instant getBorrowedAt() { return borrowedAt; }
+    public void setBorrowedAt(Instant borrowedAt) { this.borrowedAt = borrowedAt; }
+    
+    public Instant getDueAt() { return dueAt; }
+    public void setDueAt(Instant dueAt) { this.dueAt = dueAt; }
+    
+    public Instant getReturnedAt() { return returnedAt; }
+    public void setReturnedAt(Instant returnedAt) { this.returnedAt = returnedAt; }
+}
\ No newline at end of file
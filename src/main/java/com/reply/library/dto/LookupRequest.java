@@ -0,0 +1,31 @@
+package com.reply.library.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public class LookupRequest {
+    @Size(max = 5000, message = "At most 5000 ids can be looked up at once")
+    private List<@NotNull Long> ids;
+    
+    // books only
+    @Size(max = 5000, message = "At most 5000 ISBNs can be looked up at once")
+    private List<@NotBlank String> isbns;
+    
+    // Constructors
+    public LookupRequest() {}
+    
+    public LookupRequest(List<Long> ids, List<String> isbns) {
+        this.ids = ids;
+        this.isbns = isbns;
+    }
+    
+    // Getters and Setters
+    public List<Long> getIds() { return ids; }
+    public void setIds(List<Long> ids) { this.ids = ids; }
+    
+    public List<String> getIsbns() { return isbns; }
+    public void setIsbns(List<String> isbns) { this.isbns = isbns; }
+}
\ No newline at end of file
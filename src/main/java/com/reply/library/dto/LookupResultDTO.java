@@ -0,0 +1,28 @@
+package com.reply.library.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of a bulk lookup. {@code content} holds what was found in request order, ids
+ * first and then ISBNs, each item once even if several keys matched it; the keys that
+ * matched nothing are listed separately. A key type that was not asked for is left out.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class LookupResultDTO<T> {
+    private List<T> content = new ArrayList<>();
+    private List<Long> missingIds;
+    private List<String> missingIsbns;
+    
+    // Getters and Setters
+    public List<T> getContent() { return content; }
+    public void setContent(List<T> content) { this.content = content; }
+    
+    public List<Long> getMissingIds() { return missingIds; }
+    public void setMissingIds(List<Long> missingIds) { this.missingIds = missingIds; }
+    
+    public List<String> getMissingIsbns() { return missingIsbns; }
+    public void setMissingIsbns(List<String> missingIsbns) { this.missingIsbns = missingIsbns; }
+}
\ No newline at end of file
@@ -1,8 +1,11 @@
 package com.reply.library.dto;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 
+import java.time.Instant;
+
 public class MemberDTO {
     private Long id;
     
@@ -13,6 +16,12 @@ public class MemberDTO {
     @NotBlank(message = "Email is required")
     private String email;
     
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long version;
+    
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Instant updatedAt;
+    
     // Constructors
     public MemberDTO() {}
     
@@ -21,6 +30,16 @@ public class MemberDTO {
         this.email = email;
     }
     
+    /**
+     * Used by the constructor-expression queries in {@code MemberRepository}.
+     */
+    public MemberDTO(Long id, String name, String email, Long version, Instant updatedAt) {
+        this(name, email);
+        this.id = id;
+        this.version = version;
+        this.updatedAt = updatedAt;
+    }
+    
     // Getters and Setters
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
@@ -30,4 +49,10 @@ public class MemberDTO {
     
     public String getEmail() { return email; }
     public void setEmail(String email) { this.email = email; }
+    
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
+    
+    public Instant getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(Instant updatedAt) { this.updatedAt = updatedAt; }
 }
\ No newline at end of file
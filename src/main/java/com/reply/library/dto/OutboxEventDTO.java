@@ -0,0 +1,43 @@
+package com.reply.library.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonRawValue;
+
+import java.time.Instant;
+
+/**
+ * A relayed change. {@code payload} holds the new state for created and updated events and
+ * is absent for the others, which {@code type} and {@code aggregateId} fully describe.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class OutboxEventDTO {
+    private Long position;
+    private String aggregateType;
+    private Long aggregateId;
+    private String type;
+    @JsonRawValue
+    private String payload;
+    private Instant createdAt;
+    
+    // Constructors
+    public OutboxEventDTO() {}
+    
+    // Getters and Setters
+    public Long getPosition() { return position; }
+    public void setPosition(Long position) { this.position = position; }
+    
+    public String getAggregateType() { return aggregateType; }
+    public void setAggregateType(String aggregateType) { this.aggregateType = aggregateType; }
+    
+    public Long getAggregateId() { return aggregateId; }
+    public void setAggregateId(Long aggregateId) { this.aggregateId = aggregateId; }
+    
+    public String getType() { return type; }
+    public void setType(String type) { this.type = type; }
+    
+    public String getPayload() { return payload; }
+    public void setPayload(String payload) { this.payload = payload; }
+    
+    public Instant getCreatedAt() { return createdAt; }
+    public void setCreatedAt(Instant createdAt) { this.createdAt = createdAt; }
+}
\ No newline at end of file
@@ -0,0 +1,66 @@
+package com.reply.library.dto;
+
+import org.springframework.data.domain.Page;
+
+import java.util.List;
+
+/**
+ * One page of an offset-paginated listing. Has the same properties, with the same names, as
+ * a serialized Spring {@code Page}, except for the {@code pageable} and {@code sort} blocks,
+ * which only repeat the request back to the client.
+ */
+public class PageDTO<T> {
+    private List<T> content;
+    private int number;
+    private int size;
+    private int numberOfElements;
+    private long totalElements;
+    private int totalPages;
+    private boolean first;
+    private boolean last;
+    private boolean empty;
+    
+    public PageDTO() {}
+    
+    public static <T> PageDTO<T> of(Page<T> page) {
+        PageDTO<T> dto = new PageDTO<>();
+        dto.setContent(page.getContent());
+        dto.setNumber(page.getNumber());
+        dto.setSize(page.getSize());
+        dto.setNumberOfElements(page.getNumberOfElements());
+        dto.setTotalElements(page.getTotalElements());
+        dto.setTotalPages(page.getTotalPages());
+        dto.setFirst(page.isFirst());
+        dto.setLast(page.isLast());
+        dto.setEmpty(page.isEmpty());
+        return dto;
+    }
+    
+    // Getters and Setters
+    public List<T> getContent() { return content; }
+    public void setContent(List<T> content) { this.content = content; }
+    
+    public int getNumber() { return number; }
+    public void setNumber(int number) { this.number = number; }
+    
+    public int getSize() { return size; }
+    public void setSize(int size) { this.size = size; }
+    
+    public int getNumberOfElements() { return numberOfElements; }
+    public void setNumberOfElements(int numberOfElements) { this.numberOfElements = numberOfElements; }
+    
+    public long getTotalElements() { return totalElements; }
+    public void setTotalElements(long totalElements) { this.totalElements = totalElements; }
+    
+    public int getTotalPages() { return totalPages; }
+    public void setTotalPages(int totalPages) { this.totalPages = totalPages; }
+    
+    public boolean isFirst() { return first; }
+    public void setFirst(boolean first) { this.first = first; }
+    
+    public boolean isLast() { return last; }
+    public void setLast(boolean last) { this.last = last; }
+    
+    public boolean isEmpty() { return empty; }
+    public void setEmpty(boolean empty) { this.empty = empty; }
+}
\ No newline at end of file
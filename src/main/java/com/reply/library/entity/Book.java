@@ -1,6 +1,9 @@
 package com.reply.library.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.Instant;
 
 @Entity
 @Table(name = "books")
@@ -20,6 +23,17 @@ public class Book {
     
     private boolean isBorrowed = false;
     
+    @Version
+    @Column(nullable = false)
+    private long version;
+    
+    /**
+     * Set by Hibernate on every insert and update, and by the bulk updates in
+     * {@code BookRepository}. Null for rows written before the column existed.
+     */
+    @UpdateTimestamp
+    private Instant updatedAt;
+    
     // Constructors
     public Book() {}
     
@@ -45,4 +59,8 @@ public class Book {
     
     public boolean isBorrowed() { return isBorrowed; }
     public void setBorrowed(boolean borrowed) { isBorrowed = borrowed; }
+    
+    public long getVersion() { return version; }
+    
+    public Instant getUpdatedAt() { return updatedAt; }
 }
\ No newline at end of file
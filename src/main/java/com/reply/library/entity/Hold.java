@@ -0,0 +1,56 @@
+package com.reply.library.entity;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+/**
+ * A member's place in the queue for a book that is currently out. Holds are served in id
+ * order; {@code fulfilledAt} is set when a return hands the book to the member.
+ */
+@Entity
+@Table(name = "holds", indexes = {
+    @Index(name = "idx_holds_queue", columnList = "book_id, fulfilled_at, id")
+})
+public class Hold {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "book_id", nullable = false)
+    private Long bookId;
+    
+    @Column(name = "member_id", nullable = false)
+    private Long memberId;
+    
+    @Column(name = "placed_at", nullable = false)
+    private Instant placedAt;
+    
+    @Column(name = "fulfilled_at")
+    private Instant fulfilledAt;
+    
+    // Constructors
+    public Hold() {}
+    
+    public Hold(Long bookId, Long memberId, Instant placedAt) {
+        this.bookId = bookId;
+        this.memberId = memberId;
+        this.placedAt = placedAt;
+    }
+    
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    
+    public Long getBookId() { return bookId; }
+    public void setBookId(Long bookId) { this.bookId = bookId; }
+    
+    public Long getMemberId() { return memberId; }
+    public void setMemberId(Long memberId) { this.memberId = memberId; }
+    
+    public Instant getPlacedAt() { return placedAt; }
+    public void setPlacedAt(Instant placedAt) { this.placedAt = placedAt; }
+    
+    public Instant getFulfilledAt() { return fulfilledAt; }
+    public void setFulfilledAt(Instant fulfilledAt) { this.fulfilledAt = fulfilledAt; }
+}
\ No newline at end of file
@@ -0,0 +1,77 @@
+package com.reply.library.entity;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+/**
+ * A response kept for replay to retries carrying the same {@code Idempotency-Key}. Only
+ * written when {@code library.idempotency.persistent} is on, so replays survive restarts
+ * and work across instances.
+ */
+@Entity
+@Table(name = "idempotency_keys", indexes = {
+    @Index(name = "idx_idempotency_created", columnList = "created_at")
+})
+public class IdempotencyRecord {
+    @Id
+    @Column(name = "key_hash", length = 64)
+    private String keyHash;
+    
+    @Column(name = "request_hash", nullable = false, length = 64)
+    private String requestHash;
+    
+    @Column(name = "status", nullable = false)
+    private int status;
+    
+    @Column(name = "content_type")
+    private String contentType;
+    
+    /** Replayed response headers, one {@code Name: value} line each. */
+    @Lob
+    @Column(name = "headers")
+    private String headers;
+    
+    @Lob
+    @Column(name = "body")
+    private byte[] body;
+    
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+    
+    // Constructors
+    public IdempotencyRecord() {}
+    
+    public IdempotencyRecord(String keyHash, String requestHash, int status, String contentType, String headers,
+                             byte[] body, Instant createdAt) {
+        this.keyHash = keyHash;
+        this.requestHash = requestHash;
+        this.status = status;
+        this.contentType = contentType;
+        this.headers = headers;
+        this.body = body;
+        this.createdAt = createdAt;
+    }
+    
+    // Getters and Setters
+    public String getKeyHash() { return keyHash; }
+    public void setKeyHash(String keyHash) { this.keyHash = keyHash; }
+    
+    public String getRequestHash() { return requestHash; }
+    public void setRequestHash(String requestHash) { this.requestHash = requestHash; }
+    
+    public int getStatus() { return status; }
+    public void setStatus(int status) { this.status = status; }
+    
+    public String getContentType() { return contentType; }
+    public void setContentType(String contentType) { this.contentType = contentType; }
+    
+    public String getHeaders() { return headers; }
+    public void setHeaders(String headers) { this.headers = headers; }
+    
+    public byte[] getBody() { return body; }
+    public void setBody(byte[] body) { this.body = body; }
+    
+    public Instant getCreatedAt() { return createdAt; }
+    public void setCreatedAt(Instant createdAt) { this.createdAt = createdAt; }
+}
\ No newline at end of file
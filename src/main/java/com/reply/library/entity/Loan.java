@@ -0,0 +1,74 @@
+package com.reply.library.entity;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+/**
+ * One borrow of one book, kept after the book is returned. Book and member are plain ids
+ * rather than associations: the ledger is append-mostly history, is never navigated from,
+ * and must outlive the rows it points at.
+ * <p>
+ * Ids come from a pooled sequence so a batch borrow can insert its loans in one JDBC batch.
+ * Every index puts {@code returned_at} right after the equality column, if any, so lookups
+ * of open loans only ever touch the open part of the table, however much history has piled
+ * up. {@code idx_loans_open_due} leads with it so the overdue walk covers only open loans;
+ * {@code idx_loans_member_open} ends with {@code due_at} so a member's open loans come back
+ * already in due order.
+ */
+@Entity
+@Table(name = "loans", indexes = {
+    @Index(name = "idx_loans_member_open", columnList = "member_id, returned_at, due_at"),
+    @Index(name = "idx_loans_book_open", columnList = "book_id, returned_at"),
+    @Index(name = "idx_loans_open_due", columnList = "returned_at, due_at, id")
+})
+public class Loan {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "loans_seq")
+    @SequenceGenerator(name = "loans_seq", sequenceName = "loans_seq", allocationSize = 50)
+    private Long id;
+    
+    @Column(name = "book_id", nullable = false)
+    private Long bookId;
+    
+    @Column(name = "member_id", nullable = false)
+    private Long memberId;
+    
+    @Column(name = "borrowed_at", nullable = false)
+    private Instant borrowedAt;
+    
+    @Column(name = "due_at", nullable = false)
+    private Instant dueAt;
+    
+    @Column(name = "returned_at")
+    private Instant returnedAt;
+    
+    // Constructors
+    public Loan() {}
+    
+    public Loan(Long bookId, Long memberId, Instant borrowedAt, Instant dueAt) {
+        this.bookId = bookId;
+        this.memberId = memberId;
+        this.borrowedAt = borrowedAt;
+        this.dueAt = dueAt;
+    }
+    
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    
+    public Long getBookId() { return bookId; }
+    public void setBookId(Long bookId) { this.bookId = bookId; }
+    
+    public Long getMemberId() { return memberId; }
+    public void setMemberId(Long memberId) { this.memberId = memberId; }
+    
+    public Instant getBorrowedAt() { return borrowedAt; }
+    public void setBorrowedAt(Instant borrowedAt) { this.borrowedAt = borrowedAt; }
+    
+    public Instant getDueAt() { return dueAt; }
+    public void setDueAt(Instant dueAt) { this.dueAt = dueAt; }
+    
+    public Instant getReturnedAt() { return returnedAt; }
+    public void setReturnedAt(Instant returnedAt) { this.returnedAt = returnedAt; }
+}
\ No newline at end of file
@@ -3,6 +3,9 @@ package com.reply.library.entity;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.Instant;
 
 @Entity
 @Table(name = "members")
@@ -19,6 +22,13 @@ public class Member {
     @Column(nullable = false, unique = true)
     private String email;
     
+    @Version
+    @Column(nullable = false)
+    private long version;
+    
+    @UpdateTimestamp
+    private Instant updatedAt;
+    
     // Constructors
     public Member() {}
     
@@ -36,4 +46,8 @@ public class Member {
     
     public String getEmail() { return email; }
     public void setEmail(String email) { this.email = email; }
+    
+    public long getVersion() { return version; }
+    
+    public Instant getUpdatedAt() { return updatedAt; }
 }
\ No newline at end of file
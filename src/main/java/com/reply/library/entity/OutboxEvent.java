@@ -0,0 +1,81 @@
+package com.reply.library.entity;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+/**
+ * A change to a book or member, written in the same transaction as the change itself so it
+ * exists exactly when the change committed. {@code position} stays empty until the relay
+ * hands the event to the sink; from then on it orders the change stream that consumers
+ * read incrementally.
+ */
+@Entity
+@Table(name = "outbox_events", indexes = {
+    @Index(name = "idx_outbox_unpublished", columnList = "published_at, id"),
+    @Index(name = "idx_outbox_position", columnList = "stream_position", unique = true)
+})
+public class OutboxEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_events_seq")
+    @SequenceGenerator(name = "outbox_events_seq", sequenceName = "outbox_events_seq", allocationSize = 50)
+    private Long id;
+    
+    @Column(name = "aggregate_type", nullable = false, length = 32)
+    private String aggregateType;
+    
+    @Column(name = "aggregate_id", nullable = false)
+    private Long aggregateId;
+    
+    @Column(name = "event_type", nullable = false, length = 32)
+    private String eventType;
+    
+    @Lob
+    @Column(name = "payload")
+    private String payload;
+    
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+    
+    @Column(name = "published_at")
+    private Instant publishedAt;
+    
+    @Column(name = "stream_position")
+    private Long position;
+    
+    // Constructors
+    public OutboxEvent() {}
+    
+    public OutboxEvent(String aggregateType, Long aggregateId, String eventType, String payload, Instant createdAt) {
+        this.aggregateType = aggregateType;
+        this.aggregateId = aggregateId;
+        this.eventType = eventType;
+        this.payload = payload;
+        this.createdAt = createdAt;
+    }
+    
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    
+    public String getAggregateType() { return aggregateType; }
+    public void setAggregateType(String aggregateType) { this.aggregateType = aggregateType; }
+    
+    public Long getAggregateId() { return aggregateId; }
+    public void setAggregateId(Long aggregateId) { this.aggregateId = aggregateId; }
+    
+    public String getEventType() { return eventType; }
+    public void setEventType(String eventType) { this.eventType = eventType; }
+    
+    public String getPayload() { return payload; }
+    public void setPayload(String payload) { this.payload = payload; }
+    
+    public Instant getCreatedAt() { return createdAt; }
+    public void setCreatedAt(Instant createdAt) { this.createdAt = createdAt; }
+    
+    public Instant getPublishedAt() { return publishedAt; }
+    public void setPublishedAt(Instant publishedAt) { this.publishedAt = publishedAt; }
+    
+    public Long getPosition() { return position; }
+    public void setPosition(Long position) { this.position = position; }
+}
\ No newline at end of file
@@ -0,0 +1,9 @@
+package com.reply.library.repository;
+
+/**
+ * Projection of a book row down to the columns needed to track availability.
+ */
+public interface BookAvailability {
+    Long getId();
+    boolean isBorrowed();
+}
\ No newline at end of file
@@ -1,13 +1,149 @@
 package com.reply.library.repository;
 
+import com.reply.library.dto.BookDTO;
 import com.reply.library.entity.Book;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface BookRepository extends JpaRepository<Book, Long> {
+    
+    /**
+     * Reads rows straight into {@link BookDTO}s. Nothing enters the persistence context,
+     * so there are no entity instances or dirty-checking snapshots to allocate.
+     */
+    String SELECT_DTO = "select new com.reply.library.dto.BookDTO(b.id, b.title, b.author, b.isbn, b.isBorrowed, b.version, b.updatedAt) from Book b";
+    
     Optional<Book> findByIsbn(String isbn);
     boolean existsByIsbn(String isbn);
+    
+    @Transactional(readOnly = true)
+    @Query(value = SELECT_DTO, countQuery = "select count(b) from Book b")
+    Page<BookDTO> findAllDtos(Pageable pageable);
+    
+    @Transactional(readOnly = true)
+    @Query(SELECT_DTO + " where b.id = :id")
+    Optional<BookDTO> findDtoById(@Param("id") Long id);
+    
+    /**
+     * Keyset page: seeks past {@code id} on the primary key, so the cost does not grow with
+     * depth. Returns a list rather than a page to avoid the count query.
+     */
+    @Transactional(readOnly = true)
+    @Query(SELECT_DTO + " where b.id > :id order by b.id")
+    List<BookDTO> findDtosAfter(@Param("id") Long id, Pageable pageable);
+    
+    /**
+     * Reads only the version, for answering conditional requests without loading the book.
+     */
+    @Transactional(readOnly = true)
+    @Query("select b.version from Book b where b.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+    
+    @Query(SELECT_DTO + " where b.id in :ids")
+    List<BookDTO> findDtosByIdIn(@Param("ids") Collection<Long> ids);
+    
+    @Query(SELECT_DTO + " where b.isbn in :isbns")
+    List<BookDTO> findDtosByIsbnIn(@Param("isbns") Collection<String> isbns);
+    
+    /**
+     * Streams every book in id order for exports. Rows are fetched from the driver in
+     * batches and loaded read-only; the caller must consume the stream inside a transaction
+     * and close it.
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select b from Book b order by b.id")
+    Stream<Book> streamAllByOrderByIdAsc();
+    
+    /**
+     * Streams the searchable columns of every book, used to build the search index at
+     * startup. Same consumption rules as {@link #streamAllByOrderByIdAsc()}.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("select b.id as id, b.title as title, b.author as author, b.isbn as isbn from Book b")
+    Stream<BookSummary> streamAllSummaries();
+    
+    @Query("select b.id as id, b.title as title, b.author as author, b.isbn as isbn from Book b where b.isbn in :isbns")
+    List<BookSummary> findSummariesByIsbnIn(@Param("isbns") Collection<String> isbns);
+    
+    /**
+     * Loads a book with a row lock held until the transaction ends, to serialise changes
+     * that depend on its borrowed flag.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select b from Book b where b.id = :id")
+    Optional<Book> findByIdForUpdate(@Param("id") Long id);
+    
+    @Query("select b.isbn from Book b where b.isbn in :isbns")
+    List<String> findExistingIsbns(@Param("isbns") Collection<String> isbns);
+    
+    @Query("select b.id as id, b.isBorrowed as borrowed from Book b")
+    List<BookAvailability> findAllAvailability();
+    
+    @Query("select b.id as id, b.isBorrowed as borrowed from Book b where b.id in :ids")
+    List<BookAvailability> findAvailabilityByIdIn(@Param("ids") Collection<Long> ids);
+    
+    /**
+     * Flags the book as borrowed only if it is currently available. The version is bumped so
+     * that a concurrent full-entity update of the same row fails instead of overwriting it.
+     * <p>
+     * The check and the write are one statement, so two borrows cannot both read the book as
+     * available. The statement still locks the row, from the UPDATE until the transaction
+     * commits; a concurrent borrow, return or hold of the same book waits for that commit.
+     *
+     * @return the number of rows updated, 0 if the book is missing or already borrowed
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Book b set b.isBorrowed = true, b.version = b.version + 1, b.updatedAt = instant where b.id = :id and b.isBorrowed = false")
+    int markBorrowed(@Param("id") Long id);
+    
+    /**
+     * Flags the book as available only if it is currently borrowed.
+     *
+     * @return the number of rows updated, 0 if the book is missing or not borrowed
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Book b set b.isBorrowed = false, b.version = b.version + 1, b.updatedAt = instant where b.id = :id and b.isBorrowed = true")
+    int markReturned(@Param("id") Long id);
+    
+    /**
+     * Set-based variant of {@link #markBorrowed(Long)}: a single statement for the whole batch.
+     *
+     * @return the number of books that moved from available to borrowed
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Book b set b.isBorrowed = true, b.version = b.version + 1, b.updatedAt = instant where b.id in :ids and b.isBorrowed = false")
+    int markAllBorrowed(@Param("ids") Collection<Long> ids);
+    
+    /**
+     * Set-based variant of {@link #markReturned(Long)}: a single statement for the whole batch.
+     *
+     * @return the number of books that moved from borrowed to available
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Book b set b.isBorrowed = false, b.version = b.version + 1, b.updatedAt = instant where b.id in :ids and b.isBorrowed = true")
+    int markAllReturned(@Param("ids") Collection<Long> ids);
 }
\ No newline at end of file
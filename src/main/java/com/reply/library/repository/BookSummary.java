@@ -0,0 +1,11 @@
+package com.reply.library.repository;
+
+/**
+ * Projection of the descriptive columns of a book, read without hydrating the entity.
+ */
+public interface BookSummary {
+    Long getId();
+    String getTitle();
+    String getAuthor();
+    String getIsbn();
+}
\ No newline at end of file
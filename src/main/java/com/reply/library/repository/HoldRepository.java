@@ -0,0 +1,24 @@
+package com.reply.library.repository;
+
+import com.reply.library.entity.Hold;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface HoldRepository extends JpaRepository<Hold, Long> {
+    
+    /**
+     * Head of a book's queue, locked so that a concurrent cancel cannot remove it while it
+     * is being fulfilled.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<Hold> findFirstByBookIdAndFulfilledAtIsNullOrderByIdAsc(Long bookId);
+    
+    boolean existsByBookIdAndMemberIdAndFulfilledAtIsNull(Long bookId, Long memberId);
+    
+    long countByBookIdAndFulfilledAtIsNullAndIdLessThan(Long bookId, Long id);
+}
\ No newline at end of file
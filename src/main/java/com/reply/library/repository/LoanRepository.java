@@ -0,0 +1,61 @@
+package com.reply.library.repository;
+
+import com.reply.library.entity.Loan;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface LoanRepository extends JpaRepository<Loan, Long> {
+    
+    /**
+     * Open loans of a member, served by {@code idx_loans_member_open} in index order, so no
+     * sort is needed.
+     */
+    List<Loan> findByMemberIdAndReturnedAtIsNullOrderByDueAtAsc(Long memberId);
+    
+    /**
+     * Keyset page over open loans that were due before {@code now}, in (due date, id) order.
+     * Walks {@code idx_loans_open_due} from the cursor position, so each page costs the same
+     * however far into the backlog it is. Start with {@link Instant#EPOCH} and id 0.
+     */
+    @Query("select l from Loan l where l.returnedAt is null and l.dueAt < :now"
+        + " and (l.dueAt > :afterDue or (l.dueAt = :afterDue and l.id > :afterId))"
+        + " order by l.dueAt, l.id")
+    List<Loan> findOverdueAfter(@Param("now") Instant now,
+                                @Param("afterDue") Instant afterDue,
+                                @Param("afterId") Long afterId,
+                                Pageable pageable);
+    
+    /**
+     * Open loans that were due before {@code now}, counted from {@code idx_loans_open_due}
+     * without reading the rows.
+     */
+    long countByReturnedAtIsNullAndDueAtBefore(Instant now);
+    
+    /**
+     * Closes the open loan of a book, served by {@code idx_loans_book_open}.
+     *
+     * @return the number of loans closed
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true)
+    @Query("update Loan l set l.returnedAt = :returnedAt where l.bookId = :bookId and l.returnedAt is null")
+    int closeOpenLoan(@Param("bookId") Long bookId, @Param("returnedAt") Instant returnedAt);
+    
+    /**
+     * Set-based variant of {@link #closeOpenLoan(Long, Instant)}.
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true)
+    @Query("update Loan l set l.returnedAt = :returnedAt where l.bookId in :bookIds and l.returnedAt is null")
+    int closeOpenLoans(@Param("bookIds") Collection<Long> bookIds, @Param("returnedAt") Instant returnedAt);
+}
\ No newline at end of file
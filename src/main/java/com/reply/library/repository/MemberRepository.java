@@ -1,13 +1,66 @@
 package com.reply.library.repository;
 
+import com.reply.library.dto.MemberDTO;
 import com.reply.library.entity.Member;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface MemberRepository extends JpaRepository<Member, Long> {
+    
+    /**
+     * Reads rows straight into {@link MemberDTO}s, bypassing the persistence context.
+     */
+    String SELECT_DTO = "select new com.reply.library.dto.MemberDTO(m.id, m.name, m.email, m.version, m.updatedAt) from Member m";
+    
     Optional<Member> findByEmail(String email);
     boolean existsByEmail(String email);
+    
+    @Transactional(readOnly = true)
+    @Query(value = SELECT_DTO, countQuery = "select count(m) from Member m")
+    Page<MemberDTO> findAllDtos(Pageable pageable);
+    
+    @Transactional(readOnly = true)
+    @Query(SELECT_DTO + " where m.id = :id")
+    Optional<MemberDTO> findDtoById(@Param("id") Long id);
+    
+    /**
+     * Keyset page: seeks past {@code id} on the primary key, so the cost does not grow with
+     * depth. Returns a list rather than a page to avoid the count query.
+     */
+    @Transactional(readOnly = true)
+    @Query(SELECT_DTO + " where m.id > :id order by m.id")
+    List<MemberDTO> findDtosAfter(@Param("id") Long id, Pageable pageable);
+    
+    @Transactional(readOnly = true)
+    @Query("select m.version from Member m where m.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+    
+    @Query(SELECT_DTO + " where m.id in :ids")
+    List<MemberDTO> findDtosByIdIn(@Param("ids") Collection<Long> ids);
+    
+    /**
+     * Streams every member in id order for exports. Rows are fetched from the driver in
+     * batches and loaded read-only; the caller must consume the stream inside a transaction
+     * and close it.
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select m from Member m order by m.id")
+    Stream<Member> streamAllByOrderByIdAsc();
 }
\ No newline at end of file
@@ -0,0 +1,43 @@
+package com.reply.library.repository;
+
+import com.reply.library.entity.OutboxEvent;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface OutboxRepository extends JpaRepository<OutboxEvent, Long> {
+    
+    /**
+     * Oldest events not yet relayed, locked so that relays on other instances wait instead
+     * of sending the same batch. Served by {@code idx_outbox_unpublished}.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select e from OutboxEvent e where e.publishedAt is null order by e.id")
+    List<OutboxEvent> findUnpublishedForUpdate(Pageable pageable);
+    
+    @Query("select coalesce(max(e.position), 0) from OutboxEvent e")
+    long findMaxPosition();
+    
+    /**
+     * Keyset page over relayed events, served by {@code idx_outbox_position}.
+     */
+    List<OutboxEvent> findByPositionGreaterThanOrderByPositionAsc(Long position, Pageable pageable);
+    
+    /**
+     * @return the number of relayed events deleted
+     */
+    @Transactional
+    @Modifying
+    @Query("delete from OutboxEvent e where e.publishedAt < :before")
+    int deletePublishedBefore(@Param("before") Instant before);
+}
\ No newline at end of file
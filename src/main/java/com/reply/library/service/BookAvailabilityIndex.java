@@ -0,0 +1,162 @@
+package com.reply.library.service;
+
+import com.reply.library.repository.BookAvailability;
+import com.reply.library.repository.BookRepository;
+import com.reply.library.util.TransactionCallbacks;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * In-process view of which books are currently borrowed, kept in sync with the books table.
+ * The borrow path claims a book here with a CAS before touching the database, so requests
+ * for a book that is already out are rejected without a round trip. The database remains
+ * the source of truth: a claim is only confirmed by the conditional UPDATE in
+ * {@link BookRepository#markBorrowed(Long)}, and any disagreement evicts the entry so it is
+ * reloaded from the table on next use.
+ * <p>
+ * A rejection is not confirmed that way, and the book may have been returned through
+ * another instance or directly in the database. So "borrowed" is only trusted for
+ * {@code library.availability.borrowed-ttl} after it was last read or written; after that
+ * the entry is dropped and the next request reloads it.
+ */
+@Component
+public class BookAvailabilityIndex {
+    
+    public enum Claim { CLAIMED, CONFLICT, UNKNOWN }
+    
+    private final ConcurrentHashMap<Long, State> states = new ConcurrentHashMap<>();
+    private final LongSupplier clock;
+    
+    @Autowired
+    private BookRepository bookRepository;
+    
+    @Value("${library.availability.borrowed-ttl:5s}")
+    private Duration borrowedTtl = Duration.ofSeconds(5);
+    
+    public BookAvailabilityIndex() {
+        this(System::nanoTime);
+    }
+    
+    BookAvailabilityIndex(LongSupplier clock) {
+        this.clock = clock;
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        for (BookAvailability row : bookRepository.findAllAvailability()) {
+            // entries seeded by live traffic while loading are newer than this snapshot
+            states.putIfAbsent(row.getId(), state(row.isBorrowed()));
+        }
+    }
+    
+    /**
+     * Atomically moves the book from available to borrowed.
+     */
+    public Claim claim(Long bookId) {
+        return transition(bookId, false, true);
+    }
+    
+    /**
+     * Seeds the entry from a freshly read row if nothing is known yet, then claims it.
+     */
+    public Claim claim(Long bookId, boolean currentlyBorrowed) {
+        seed(bookId, currentlyBorrowed);
+        return claim(bookId);
+    }
+    
+    /**
+     * Records the state of a freshly read row unless the index already knows the book.
+     */
+    public void seed(Long bookId, boolean currentlyBorrowed) {
+        states.putIfAbsent(bookId, state(currentlyBorrowed));
+    }
+    
+    /**
+     * @return the known state, or null if the book is not in the index or its "borrowed"
+     *         state has expired
+     */
+    public Boolean isBorrowed(Long bookId) {
+        State state = current(bookId);
+        return state == null ? null : state.borrowed;
+    }
+    
+    public void markBorrowed(Long bookId) {
+        TransactionCallbacks.afterCommit(() -> states.put(bookId, state(true)));
+    }
+    
+    public void markAvailable(Long bookId) {
+        TransactionCallbacks.afterCommit(() -> states.put(bookId, state(false)));
+    }
+    
+    public void add(Long bookId) {
+        TransactionCallbacks.afterCommit(() -> states.putIfAbsent(bookId, state(false)));
+    }
+    
+    public void remove(Long bookId) {
+        TransactionCallbacks.afterCommit(() -> states.remove(bookId));
+    }
+    
+    /**
+     * Drops the entry immediately so the next access reloads it from the database.
+     */
+    public void evict(Long bookId) {
+        states.remove(bookId);
+    }
+    
+    public int size() {
+        return states.size();
+    }
+    
+    private Claim transition(Long bookId, boolean from, boolean to) {
+        while (true) {
+            State state = current(bookId);
+            if (state == null) {
+                return Claim.UNKNOWN;
+            }
+            if (state.borrowed != from) {
+                return Claim.CONFLICT;
+            }
+            if (states.replace(bookId, state, state(to))) {
+                TransactionCallbacks.onRollback(() -> evict(bookId));
+                return Claim.CLAIMED;
+            }
+        }
+    }
+    
+    /**
+     * The entry for the book, dropping it first if it says "borrowed" and is older than the
+     * TTL.
+     */
+    private State current(Long bookId) {
+        State state = states.get(bookId);
+        if (state != null && state.borrowed && clock.getAsLong() - state.since > borrowedTtl.toNanos()) {
+            states.remove(bookId, state);
+            return null;
+        }
+        return state;
+    }
+    
+    private State state(boolean borrowed) {
+        return new State(borrowed, clock.getAsLong());
+    }
+    
+    /**
+     * Compared by identity, so a CAS only succeeds against the exact entry that was read.
+     */
+    private static final class State {
+        private final boolean borrowed;
+        private final long since;
+        
+        private State(boolean borrowed, long since) {
+            this.borrowed = borrowed;
+            this.since = since;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,245 @@
+package com.reply.library.service;
+
+import com.reply.library.config.AsyncConfig;
+import com.reply.library.dto.BookChangeDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Fans committed book changes out to Server-Sent Events subscribers.
+ * <p>
+ * Every change gets a sequence number and is kept in a bounded history, so a client that
+ * reconnects with {@code Last-Event-ID} is replayed what it missed. Publishing never waits
+ * on a client: each subscriber has its own buffer, drained by the change-feed executor.
+ * The buffer holds at most one change per book, since only the latest state matters to a
+ * dashboard; when it still overflows the oldest changes are dropped and the client is sent
+ * a {@code reset} event telling it to reload.
+ */
+@Component
+public class BookChangeFeed {
+    
+    static final String CHANGE_EVENT = "book";
+    static final String RESET_EVENT = "reset";
+    
+    private final ReentrantLock lock = new ReentrantLock();
+    
+    private final ArrayDeque<BookChangeDTO> history = new ArrayDeque<>();
+    
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    
+    private final Executor executor;
+    
+    private final Counter dropped;
+    
+    private final int historySize;
+    
+    private final int bufferSize;
+    
+    private long sequence;
+    
+    public BookChangeFeed(@Qualifier(AsyncConfig.CHANGE_FEED_EXECUTOR) Executor executor,
+                          MeterRegistry meterRegistry,
+                          @Value("${library.changes.history-size:1000}") int historySize,
+                          @Value("${library.changes.buffer-size:256}") int bufferSize) {
+        this.executor = executor;
+        this.historySize = historySize;
+        this.bufferSize = bufferSize;
+        this.dropped = Counter.builder("library.changes.dropped")
+            .description("Change events dropped because a subscriber fell behind")
+            .register(meterRegistry);
+        Gauge.builder("library.changes.subscribers", subscribers, Set::size)
+            .description("Open change feed connections")
+            .register(meterRegistry);
+    }
+    
+    /**
+     * Records a change and hands it to every interested subscriber. Call it once the change
+     * is committed.
+     */
+    public void publish(Long bookId, BookChangeDTO.Type type) {
+        lock.lock();
+        try {
+            BookChangeDTO change = new BookChangeDTO(++sequence, bookId, type, Instant.now());
+            if (history.size() == historySize) {
+                history.removeFirst();
+            }
+            history.addLast(change);
+            for (Subscriber subscriber : subscribers) {
+                subscriber.offer(change);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Opens a feed.
+     *
+     * @param bookIds only changes to these books are sent; null for every book
+     * @param lastEventId sequence the client has seen up to, null to start from now
+     */
+    public SseEmitter subscribe(Set<Long> bookIds, Long lastEventId, long timeoutMillis) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        register(bookIds, lastEventId, emitter);
+        return emitter;
+    }
+    
+    void register(Set<Long> bookIds, Long lastEventId, SseEmitter emitter) {
+        Subscriber subscriber = new Subscriber(emitter, bookIds);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(error -> subscribers.remove(subscriber));
+        
+        lock.lock();
+        try {
+            // replaying and joining under the lock means no change is missed or sent twice
+            if (lastEventId != null) {
+                BookChangeDTO oldest = history.peekFirst();
+                long oldestKept = oldest == null ? sequence + 1 : oldest.getSequence();
+                if (lastEventId + 1 < oldestKept || lastEventId > sequence) {
+                    subscriber.reset();
+                }
+                for (BookChangeDTO change : history) {
+                    if (change.getSequence() > lastEventId) {
+                        subscriber.offer(change);
+                    }
+                }
+            }
+            subscribers.add(subscriber);
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Sends a comment down idle connections, so proxies keep them open and clients that went
+     * away are noticed.
+     */
+    @Scheduled(fixedDelayString = "${library.changes.heartbeat-interval:PT15S}")
+    public void heartbeat() {
+        subscribers.forEach(Subscriber::heartbeat);
+    }
+    
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+    
+    private final class Subscriber {
+        
+        private final SseEmitter emitter;
+        
+        private final Set<Long> bookIds;
+        
+        // guarded by this
+        private final LinkedHashMap<Long, BookChangeDTO> pending = new LinkedHashMap<>();
+        private boolean resetPending;
+        private boolean heartbeatPending;
+        private boolean draining;
+        
+        Subscriber(SseEmitter emitter, Set<Long> bookIds) {
+            this.emitter = emitter;
+            this.bookIds = bookIds;
+        }
+        
+        void offer(BookChangeDTO change) {
+            if (bookIds != null && !bookIds.contains(change.getBookId())) {
+                return;
+            }
+            synchronized (this) {
+                // re-inserting keeps the buffer in sequence order
+                pending.remove(change.getBookId());
+                pending.put(change.getBookId(), change);
+                if (pending.size() > bufferSize) {
+                    Iterator<BookChangeDTO> oldest = pending.values().iterator();
+                    oldest.next();
+                    oldest.remove();
+                    resetPending = true;
+                    dropped.increment();
+                }
+                scheduleDrain();
+            }
+        }
+        
+        synchronized void reset() {
+            resetPending = true;
+            scheduleDrain();
+        }
+        
+        synchronized void heartbeat() {
+            heartbeatPending = true;
+            scheduleDrain();
+        }
+        
+        private void scheduleDrain() {
+            if (draining) {
+                return;
+            }
+            draining = true;
+            try {
+                executor.execute(this::drain);
+            } catch (TaskRejectedException ex) {
+                // retried on the next offer or heartbeat
+                draining = false;
+            }
+        }
+        
+        private void drain() {
+            while (true) {
+                List<BookChangeDTO> batch;
+                boolean sendReset;
+                boolean sendHeartbeat;
+                synchronized (this) {
+                    if (pending.isEmpty() && !resetPending && !heartbeatPending) {
+                        draining = false;
+                        return;
+                    }
+                    batch = new ArrayList<>(pending.values());
+                    pending.clear();
+                    sendReset = resetPending;
+                    sendHeartbeat = heartbeatPending && batch.isEmpty() && !sendReset;
+                    resetPending = false;
+                    heartbeatPending = false;
+                }
+                
+                try {
+                    if (sendReset) {
+                        emitter.send(SseEmitter.event().name(RESET_EVENT).data(""));
+                    }
+                    for (BookChangeDTO change : batch) {
+                        emitter.send(SseEmitter.event()
+                            .id(Long.toString(change.getSequence()))
+                            .name(CHANGE_EVENT)
+                            .data(change));
+                    }
+                    if (sendHeartbeat) {
+                        emitter.send(SseEmitter.event().comment("keep-alive"));
+                    }
+                } catch (IOException | IllegalStateException ex) {
+                    // the client is gone or the emitter already completed
+                    subscribers.remove(this);
+                    emitter.completeWithError(ex);
+                    return;
+                }
+            }
+        }
+    }
+}
\ No newline at end of file
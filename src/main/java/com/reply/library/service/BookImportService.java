@@ -0,0 +1,194 @@
+package com.reply.library.service;
+
+import com.reply.library.dto.BookChangeDTO;
+import com.reply.library.dto.BookDTO;
+import com.reply.library.dto.ImportResultDTO;
+import com.reply.library.repository.BookRepository;
+import com.reply.library.repository.BookSummary;
+import com.reply.library.util.BookImportReader;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk catalog loader. Rows are validated as they are read, deduplicated by ISBN one chunk
+ * at a time against the table, and written with a JDBC batch insert per chunk so the whole
+ * import never sits in memory and never goes through the persistence context. Each chunk
+ * commits on its own; a failure part way through leaves earlier chunks in place.
+ */
+@Service
+public class BookImportService {
+    
+    private static final Logger log = LoggerFactory.getLogger(BookImportService.class);
+    
+    private static final String INSERT_SQL =
+        "insert into books (title, author, isbn, is_borrowed, version, updated_at) values (?, ?, ?, false, 0, current_timestamp)";
+    
+    private static final int MAX_REPORTED_ERRORS = 100;
+    
+    @Autowired
+    private BookRepository bookRepository;
+    
+    @Autowired
+    private BookAvailabilityIndex availabilityIndex;
+    
+    @Autowired
+    private BookSearchIndex searchIndex;
+    
+    @Autowired
+    private OutboxService outboxService;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @Autowired
+    private Validator validator;
+    
+    @Value("${library.import.chunk-size:1000}")
+    private int chunkSize = 1000;
+    
+    public ImportResultDTO importBooks(BookImportReader reader, Consumer<ImportResultDTO> progress) throws IOException {
+        ImportResultDTO result = new ImportResultDTO();
+        List<ImportResultDTO.RowError> errors = new ArrayList<>();
+        List<BookDTO> chunk = new ArrayList<>(chunkSize);
+        
+        BookImportReader.Row row;
+        while ((row = reader.next()) != null) {
+            result.setProcessed(result.getProcessed() + 1);
+            String error = row.getError() != null ? row.getError() : validate(row.getBook());
+            if (error != null) {
+                result.setRejected(result.getRejected() + 1);
+                if (errors.size() < MAX_REPORTED_ERRORS) {
+                    errors.add(new ImportResultDTO.RowError(row.getLine(), error));
+                }
+                continue;
+            }
+            
+            chunk.add(row.getBook());
+            if (chunk.size() >= chunkSize) {
+                writeChunk(chunk, result);
+                progress.accept(result.snapshot());
+            }
+        }
+        
+        writeChunk(chunk, result);
+        result.setDone(true);
+        result.setErrors(errors);
+        log.info("Book import finished: {} processed, {} inserted, {} duplicates, {} rejected",
+            result.getProcessed(), result.getInserted(), result.getDuplicates(), result.getRejected());
+        progress.accept(result);
+        return result;
+    }
+    
+    private String validate(BookDTO book) {
+        Set<ConstraintViolation<BookDTO>> violations = validator.validate(book);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+            .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+            .sorted()
+            .collect(Collectors.joining(", "));
+    }
+    
+    private void writeChunk(List<BookDTO> chunk, ImportResultDTO result) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        
+        Map<String, BookDTO> byIsbn = new LinkedHashMap<>();
+        for (BookDTO book : chunk) {
+            if (byIsbn.putIfAbsent(book.getIsbn(), book) != null) {
+                result.setDuplicates(result.getDuplicates() + 1);
+            }
+        }
+        
+        Integer inserted = transactionTemplate.execute(status -> {
+            Set<String> existing = new HashSet<>(bookRepository.findExistingIsbns(byIsbn.keySet()));
+            List<BookDTO> fresh = new ArrayList<>(byIsbn.size());
+            for (BookDTO book : byIsbn.values()) {
+                if (!existing.contains(book.getIsbn())) {
+                    fresh.add(book);
+                }
+            }
+            try {
+                insert(fresh);
+                return fresh.size();
+            } catch (DataIntegrityViolationException ex) {
+                // an ISBN was created concurrently; fall back to row-by-row for this chunk
+                status.setRollbackOnly();
+                return null;
+            }
+        });
+        
+        if (inserted == null) {
+            inserted = writeIndividually(byIsbn.values());
+        }
+        result.setInserted(result.getInserted() + inserted);
+        result.setDuplicates(result.getDuplicates() + byIsbn.size() - inserted);
+        chunk.clear();
+    }
+    
+    private int writeIndividually(Iterable<BookDTO> books) {
+        int inserted = 0;
+        for (BookDTO book : books) {
+            try {
+                Boolean created = transactionTemplate.execute(status -> {
+                    if (bookRepository.existsByIsbn(book.getIsbn())) {
+                        return false;
+                    }
+                    insert(List.of(book));
+                    return true;
+                });
+                if (Boolean.TRUE.equals(created)) {
+                    inserted++;
+                }
+            } catch (DataIntegrityViolationException ex) {
+                // lost the race for this ISBN; count it as a duplicate
+            }
+        }
+        return inserted;
+    }
+    
+    private void insert(List<BookDTO> books) {
+        if (books.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, books, books.size(), (ps, book) -> {
+            ps.setString(1, book.getTitle());
+            ps.setString(2, book.getAuthor());
+            ps.setString(3, book.getIsbn());
+        });
+        
+        // the batch bypasses BookService, so register the new rows with the indexes and the
+        // outbox here; all of it only takes effect if the surrounding transaction commits
+        List<String> isbns = books.stream().map(BookDTO::getIsbn).collect(Collectors.toList());
+        for (BookSummary book : bookRepository.findSummariesByIsbnIn(isbns)) {
+            availabilityIndex.add(book.getId());
+            searchIndex.index(book.getId(), book.getTitle(), book.getAuthor(), book.getIsbn());
+            BookDTO created = new BookDTO(book.getTitle(), book.getAuthor(), book.getIsbn());
+            created.setId(book.getId());
+            outboxService.record(OutboxService.BOOK, book.getId(), BookChangeDTO.Type.CREATED.name(), created);
+        }
+    }
+}
\ No newline at end of file
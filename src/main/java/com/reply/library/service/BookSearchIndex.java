@@ -0,0 +1,290 @@
+package com.reply.library.service;
+
+import com.reply.library.repository.BookRepository;
+import com.reply.library.repository.BookSummary;
+import com.reply.library.util.TransactionCallbacks;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongPredicate;
+import java.util.stream.Stream;
+
+/**
+ * In-memory inverted index over book titles and authors. The term dictionary is sorted, so
+ * the last word of a query can match as a prefix ("the hobb" finds "The Hobbit"); earlier
+ * words only match whole words. Every query term has to match (AND). Matches in the title
+ * outrank matches in the author, and exact terms outrank prefix expansions.
+ * <p>
+ * The index is built from the books table once the application is ready and updated after
+ * each committed create, update or delete. Traffic is already served while it is built, so
+ * the bulk load never overwrites a book that a commit indexed meanwhile, nor brings back
+ * one that a commit removed. Reads are lock-free; writes are serialised,
+ * because replacing a document touches several posting lists.
+ */
+@Component
+public class BookSearchIndex {
+    
+    private static final Logger log = LoggerFactory.getLogger(BookSearchIndex.class);
+    
+    /** Shorter query terms only match whole words, to keep posting scans bounded. */
+    private static final int MIN_PREFIX_LENGTH = 2;
+    
+    /** Upper bound on dictionary terms a single prefix can expand to. */
+    private static final int MAX_EXPANSIONS = 256;
+    
+    private final ConcurrentHashMap<Long, Entry> entries = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<String, Set<Long>> postings = new ConcurrentSkipListMap<>();
+    private final ReentrantLock writeLock = new ReentrantLock();
+    
+    /** Books removed while {@link #load()} runs, which its older snapshot may still list. */
+    private final Set<Long> removedWhileLoading = ConcurrentHashMap.newKeySet();
+    private volatile boolean loading;
+    
+    @Autowired
+    private BookRepository bookRepository;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        loading = true;
+        try {
+            readOnly.executeWithoutResult(status -> {
+                try (Stream<BookSummary> books = bookRepository.streamAllSummaries()) {
+                    books.forEach(book -> seed(book.getId(), book.getTitle(), book.getAuthor(), book.getIsbn()));
+                }
+            });
+        } finally {
+            loading = false;
+            removedWhileLoading.clear();
+        }
+        log.info("Book search index built with {} books and {} terms", entries.size(), postings.size());
+    }
+    
+    /**
+     * Adds or replaces a book once the current transaction commits.
+     */
+    public void index(Long id, String title, String author, String isbn) {
+        TransactionCallbacks.afterCommit(() -> put(id, title, author, isbn));
+    }
+    
+    /**
+     * Removes a book once the current transaction commits.
+     */
+    public void remove(Long id) {
+        TransactionCallbacks.afterCommit(() -> delete(id));
+    }
+    
+    public Entry get(Long id) {
+        return entries.get(id);
+    }
+    
+    public int size() {
+        return entries.size();
+    }
+    
+    /**
+     * @param filter only books whose id passes are considered, before the limit is applied
+     * @return at most {@code limit} entries, best match first
+     */
+    public List<Entry> search(String query, int limit, LongPredicate filter) {
+        Set<String> terms = tokenize(query);
+        if (terms.isEmpty()) {
+            return Collections.emptyList();
+        }
+        
+        Map<Long, Double> scores = null;
+        int remaining = terms.size();
+        for (String term : terms) {
+            Map<Long, Double> termScores = score(term, --remaining == 0, filter);
+            if (scores == null) {
+                scores = termScores;
+            } else {
+                Map<Long, Double> previous = scores;
+                termScores.keySet().retainAll(previous.keySet());
+                termScores.replaceAll((id, score) -> score + previous.get(id));
+                scores = termScores;
+            }
+            if (scores.isEmpty()) {
+                return Collections.emptyList();
+            }
+        }
+        
+        List<Entry> hits = new ArrayList<>(scores.size());
+        Map<Long, Double> finalScores = scores;
+        finalScores.forEach((id, score) -> {
+            Entry entry = entries.get(id);
+            if (entry != null) {
+                hits.add(entry);
+            }
+        });
+        hits.sort(Comparator.comparingDouble((Entry e) -> -finalScores.get(e.getId()))
+            .thenComparingInt(e -> e.getTitle().length())
+            .thenComparingLong(Entry::getId));
+        return hits.size() > limit ? new ArrayList<>(hits.subList(0, limit)) : hits;
+    }
+    
+    /**
+     * Best score per book for one query term: the maximum over the exact term and, if it
+     * may be a prefix, its expansions, weighted by the field it occurs in.
+     */
+    private Map<Long, Double> score(String term, boolean prefix, LongPredicate filter) {
+        Map<Long, Double> scores = new HashMap<>();
+        Map<String, Set<Long>> matches = prefix && term.length() >= MIN_PREFIX_LENGTH
+            ? postings.subMap(term, true, term + Character.MAX_VALUE, false)
+            : exact(term);
+        int expansions = 0;
+        for (Map.Entry<String, Set<Long>> match : matches.entrySet()) {
+            if (++expansions > MAX_EXPANSIONS) {
+                break;
+            }
+            double termWeight = match.getKey().equals(term) ? 2.0 : 1.0;
+            for (Long id : match.getValue()) {
+                if (!filter.test(id)) {
+                    continue;
+                }
+                Entry entry = entries.get(id);
+                if (entry == null) {
+                    continue;
+                }
+                double fieldWeight = entry.titleTerms.contains(match.getKey()) ? 2.0 : 1.0;
+                scores.merge(id, termWeight * fieldWeight, Math::max);
+            }
+        }
+        return scores;
+    }
+    
+    private Map<String, Set<Long>> exact(String term) {
+        Set<Long> ids = postings.get(term);
+        return ids == null ? Collections.emptyMap() : Collections.singletonMap(term, ids);
+    }
+    
+    private void put(Long id, String title, String author, String isbn) {
+        Entry entry = new Entry(id, title, author, isbn);
+        writeLock.lock();
+        try {
+            Entry previous = entries.put(id, entry);
+            if (previous != null) {
+                unlink(previous);
+            }
+            for (String term : entry.allTerms()) {
+                postings.computeIfAbsent(term, t -> ConcurrentHashMap.newKeySet()).add(id);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+    
+    /**
+     * Adds a book read by {@link #load()} unless a commit has indexed or removed it since.
+     */
+    private void seed(Long id, String title, String author, String isbn) {
+        writeLock.lock();
+        try {
+            if (!entries.containsKey(id) && !removedWhileLoading.contains(id)) {
+                put(id, title, author, isbn);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+    
+    private void delete(Long id) {
+        writeLock.lock();
+        try {
+            if (loading) {
+                removedWhileLoading.add(id);
+            }
+            Entry previous = entries.remove(id);
+            if (previous != null) {
+                unlink(previous);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+    
+    private void unlink(Entry entry) {
+        for (String term : entry.allTerms()) {
+            Set<Long> ids = postings.get(term);
+            if (ids != null) {
+                ids.remove(entry.getId());
+                if (ids.isEmpty()) {
+                    postings.remove(term, ids);
+                }
+            }
+        }
+    }
+    
+    static Set<String> tokenize(String text) {
+        Set<String> terms = new LinkedHashSet<>();
+        if (text == null) {
+            return terms;
+        }
+        StringBuilder term = new StringBuilder();
+        String lower = text.toLowerCase(Locale.ROOT);
+        for (int i = 0; i < lower.length(); i++) {
+            char c = lower.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                term.append(c);
+            } else if (term.length() > 0) {
+                terms.add(term.toString());
+                term.setLength(0);
+            }
+        }
+        if (term.length() > 0) {
+            terms.add(term.toString());
+        }
+        return terms;
+    }
+    
+    public static class Entry {
+        private final Long id;
+        private final String title;
+        private final String author;
+        private final String isbn;
+        private final Set<String> titleTerms;
+        private final Set<String> authorTerms;
+        
+        Entry(Long id, String title, String author, String isbn) {
+            this.id = id;
+            this.title = title;
+            this.author = author;
+            this.isbn = isbn;
+            this.titleTerms = tokenize(title);
+            this.authorTerms = tokenize(author);
+        }
+        
+        Set<String> allTerms() {
+            Set<String> all = new LinkedHashSet<>(titleTerms);
+            all.addAll(authorTerms);
+            return all;
+        }
+        
+        public Long getId() { return id; }
+        public String getTitle() { return title; }
+        public String getAuthor() { return author; }
+        public String getIsbn() { return isbn; }
+    }
+}
\ No newline at end of file
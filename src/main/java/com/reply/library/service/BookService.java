@@ -1,36 +1,290 @@
 package com.reply.library.service;
 
+import com.reply.library.config.CacheConfig;
+import com.reply.library.config.ReadYourWritesTracker;
+import com.reply.library.config.ReplicaRoutingDataSource;
+import com.reply.library.dto.BatchResultDTO;
+import com.reply.library.dto.BookChangeDTO;
 import com.reply.library.dto.BookDTO;
+import com.reply.library.dto.CursorPageDTO;
+import com.reply.library.dto.LookupResultDTO;
 import com.reply.library.entity.Book;
 import com.reply.library.exception.ResourceNotFoundException;
+import com.reply.library.repository.BookAvailability;
 import com.reply.library.repository.BookRepository;
+import com.reply.library.util.BulkLookup;
+import com.reply.library.util.CursorCodec;
+import com.reply.library.util.FieldProjection;
+import com.reply.library.util.SingleFlight;
+import com.reply.library.util.TransactionCallbacks;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.LongPredicate;
+import java.util.stream.Stream;
 
 @Service
 public class BookService {
     
+    /**
+     * The {@link BookDTO} properties {@code ?fields=} may name, mapped to the {@link Book}
+     * attributes they are read from.
+     */
+    public static final FieldProjection<BookDTO> FIELDS = FieldProjection.of(Book.class, BookDTO::new)
+        .field("id", "id", BookDTO::setId)
+        .field("title", "title", BookDTO::setTitle)
+        .field("author", "author", BookDTO::setAuthor)
+        .field("isbn", "isbn", BookDTO::setIsbn)
+        .field("borrowed", "isBorrowed", BookDTO::setBorrowed)
+        .field("version", "version", BookDTO::setVersion)
+        .field("updatedAt", "updatedAt", BookDTO::setUpdatedAt);
+    
     @Autowired
     private BookRepository bookRepository;
     
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @Autowired
+    private BookAvailabilityIndex availabilityIndex;
+    
+    @Autowired
+    private BookSearchIndex searchIndex;
+    
+    @Autowired
+    private CacheManager cacheManager;
+    
+    @Autowired
+    private ReadYourWritesTracker readYourWrites;
+    
+    @Autowired
+    private BookChangeFeed changeFeed;
+    
+    @Autowired
+    private OutboxService outboxService;
+    
+    @Autowired
+    private SingleFlight<Long, BookDTO> bookLookups;
+    
+    @Value("${library.lookup.chunk-size:500}")
+    private int lookupChunkSize = 500;
+    
+    @Transactional
     public BookDTO createBook(BookDTO bookDTO) {
         Book book = new Book(bookDTO.getTitle(), bookDTO.getAuthor(), bookDTO.getIsbn());
         Book savedBook = bookRepository.save(book);
-        return convertToDTO(savedBook);
+        availabilityIndex.add(savedBook.getId());
+        searchIndex.index(savedBook.getId(), savedBook.getTitle(), savedBook.getAuthor(), savedBook.getIsbn());
+        BookDTO created = convertToDTO(savedBook);
+        recordChange(savedBook.getId(), BookChangeDTO.Type.CREATED, created);
+        readYourWrites.recordWrite();
+        return created;
     }
     
+    @Transactional(readOnly = true)
     public Page<BookDTO> getAllBooks(Pageable pageable) {
-        return bookRepository.findAll(pageable).map(this::convertToDTO);
+        return bookRepository.findAllDtos(pageable);
+    }
+    
+    /**
+     * Like {@link #getAllBooks(Pageable)}, but only the given {@link #FIELDS} are read; the
+     * other properties are left unset. The id and version are always read, as the list's
+     * ETag is built from them.
+     *
+     * @param fields the properties to read, null for all of them
+     */
+    @Transactional(readOnly = true)
+    public Page<BookDTO> getAllBooks(Pageable pageable, Set<String> fields) {
+        if (fields == null) {
+            return bookRepository.findAllDtos(pageable);
+        }
+        List<BookDTO> content = FIELDS.select(entityManager, fields, null, (int) pageable.getOffset(), pageable.getPageSize());
+        return PageableExecutionUtils.getPage(content, pageable, bookRepository::count);
     }
     
+    @Transactional(readOnly = true)
+    public CursorPageDTO<BookDTO> getBooksAfter(long afterId, int size, boolean includeTotal) {
+        return getBooksAfter(afterId, size, includeTotal, null);
+    }
+    
+    /**
+     * Keyset variant of {@link #getAllBooks(Pageable, Set)}; reads one extra row to decide
+     * whether there is a next page instead of counting. The id and version are always
+     * read, since the next token and the ETag are built from them.
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDTO<BookDTO> getBooksAfter(long afterId, int size, boolean includeTotal, Set<String> fields) {
+        List<BookDTO> rows;
+        if (fields == null) {
+            rows = bookRepository.findDtosAfter(afterId, PageRequest.of(0, size + 1));
+        } else {
+            rows = FIELDS.select(entityManager, fields, afterId, 0, size + 1);
+        }
+        List<BookDTO> content = rows.size() > size ? rows.subList(0, size) : rows;
+        String next = rows.size() > size ? CursorCodec.encode(content.get(size - 1).getId()) : null;
+        Long total = includeTotal ? bookRepository.count() : null;
+        return new CursorPageDTO<>(content, next, total);
+    }
+    
+    /**
+     * Hands every book to {@code action} in id order without accumulating them: rows are
+     * streamed from the database and detached once converted, so memory stays flat for
+     * full-table exports.
+     */
+    @Transactional(readOnly = true)
+    public void forEachBook(Consumer<BookDTO> action) {
+        try (Stream<Book> books = bookRepository.streamAllByOrderByIdAsc()) {
+            books.forEach(book -> {
+                action.accept(convertToDTO(book));
+                entityManager.detach(book);
+            });
+        }
+    }
+    
+    /**
+     * Ranked title/author search served from memory: matches come from the search index and
+     * the borrowed flag from the availability index. Matches the availability index does not
+     * know are resolved from the book cache, or else read from the database in one query,
+     * and the search is repeated until every book returned is known. Books that turn out to
+     * be gone are left out.
+     *
+     * @param available when set, only books with that availability are returned
+     */
+    public List<BookDTO> searchBooks(String query, Boolean available, int limit) {
+        Map<Long, Boolean> resolved = new HashMap<>();
+        LongPredicate filter = id -> {
+            if (resolved.containsKey(id) && resolved.get(id) == null) {
+                return false;
+            }
+            Boolean borrowed = borrowed(id, resolved);
+            // unknown books stay candidates until they are resolved below
+            return borrowed == null || available == null || borrowed != available;
+        };
+        
+        List<BookSearchIndex.Entry> hits;
+        List<Long> unknown = new ArrayList<>();
+        do {
+            hits = searchIndex.search(query, limit, filter);
+            unknown.clear();
+            for (BookSearchIndex.Entry entry : hits) {
+                if (borrowed(entry.getId(), resolved) == null) {
+                    unknown.add(entry.getId());
+                }
+            }
+            resolveAvailability(unknown, resolved);
+        } while (!unknown.isEmpty());
+        
+        List<BookDTO> results = new ArrayList<>();
+        for (BookSearchIndex.Entry entry : hits) {
+            BookDTO dto = new BookDTO();
+            dto.setId(entry.getId());
+            dto.setTitle(entry.getTitle());
+            dto.setAuthor(entry.getAuthor());
+            dto.setIsbn(entry.getIsbn());
+            dto.setBorrowed(borrowed(entry.getId(), resolved));
+            results.add(dto);
+        }
+        return results;
+    }
+    
+    /**
+     * Served from the book cache. Concurrent misses for the same id share one query. There
+     * is deliberately no surrounding transaction: callers waiting on another's query must
+     * not hold a connection meanwhile, and the query is read-only on its own.
+     * <p>
+     * A loaded book is only cached if no change to it committed while it was loading, as
+     * the query may have read the row from before the change; see {@link #recordChange}.
+     * Books loaded inside a transaction are not cached. The query always reads the primary,
+     * as a lagging replica could hand back the row from before a change just evicted.
+     */
     public BookDTO getBookById(Long id) {
-        Book book = bookRepository.findById(id)
+        Cache cache = cacheManager.getCache(CacheConfig.BOOKS);
+        BookDTO cached = cache == null ? null : cache.get(id, BookDTO.class);
+        if (cached != null) {
+            return cached;
+        }
+        return bookLookups.execute(id, () -> ReplicaRoutingDataSource.onPrimary(() -> bookRepository.findDtoById(id))
+                .orElseThrow(() -> new ResourceNotFoundException("Book not found with id: " + id)),
+            book -> {
+                // a load inside a transaction may have seen that transaction's own uncommitted
+                // writes; putIfAbsent, unlike put, is not deferred to the end of one
+                if (cache != null && !TransactionSynchronizationManager.isActualTransactionActive()) {
+                    cache.putIfAbsent(id, book);
+                }
+            });
+    }
+    
+    /**
+     * The version {@link #getBookById(Long)} would serve the book at, for answering
+     * conditional requests. Taken from the cache when the book is there, otherwise read on
+     * its own from the primary, so the book is neither loaded nor cached, and a replica
+     * that has not seen a change cannot confirm the client's stale copy with a 304.
+     */
+    public long getBookVersion(Long id) {
+        Cache cache = cacheManager.getCache(CacheConfig.BOOKS);
+        BookDTO cached = cache == null ? null : cache.get(id, BookDTO.class);
+        if (cached != null && cached.getVersion() != null) {
+            return cached.getVersion();
+        }
+        return ReplicaRoutingDataSource.onPrimary(() -> bookRepository.findVersionById(id))
             .orElseThrow(() -> new ResourceNotFoundException("Book not found with id: " + id));
-        return convertToDTO(book);
     }
     
+    /**
+     * Resolves many books in one call. Ids are served from the book cache where possible;
+     * the remaining ids and all ISBNs are read with {@code IN} queries of at most
+     * {@code library.lookup.chunk-size} keys; see {@link BulkLookup}. Repeated keys are
+     * resolved once, and a book matched by both an id and an ISBN is listed once, at the
+     * position of its id.
+     *
+     * @param ids book ids, null to look up by ISBN only
+     * @param isbns ISBNs, null to look up by id only
+     */
+    @Transactional(readOnly = true)
+    public LookupResultDTO<BookDTO> lookupBooks(List<Long> ids, List<String> isbns) {
+        LookupResultDTO<BookDTO> result = new LookupResultDTO<>();
+        Map<Long, BookDTO> byId = Map.of();
+        if (ids != null) {
+            Set<Long> keys = new LinkedHashSet<>(ids);
+            byId = BulkLookup.find(keys, cacheManager.getCache(CacheConfig.BOOKS), BookDTO.class,
+                lookupChunkSize, bookRepository::findDtosByIdIn, BookDTO::getId);
+            result.getContent().addAll(byId.values());
+            result.setMissingIds(BulkLookup.missing(keys, byId));
+        }
+        if (isbns != null) {
+            Set<String> keys = new LinkedHashSet<>(isbns);
+            Map<String, BookDTO> byIsbn = BulkLookup.find(keys, null, BookDTO.class,
+                lookupChunkSize, bookRepository::findDtosByIsbnIn, BookDTO::getIsbn);
+            for (BookDTO book : byIsbn.values()) {
+                if (!byId.containsKey(book.getId())) {
+                    result.getContent().add(book);
+                }
+            }
+            result.setMissingIsbns(BulkLookup.missing(keys, byIsbn));
+        }
+        return result;
+    }
+    
+    @Transactional
     public BookDTO updateBook(Long id, BookDTO bookDTO) {
         Book book = bookRepository.findById(id)
             .orElseThrow(() -> new ResourceNotFoundException("Book not found with id: " + id));
@@ -40,47 +294,247 @@ public class BookService {
         book.setIsbn(bookDTO.getIsbn());
         
         Book updatedBook = bookRepository.save(book);
-        return convertToDTO(updatedBook);
+        // flush now so the returned book carries its new version and timestamp
+        entityManager.flush();
+        searchIndex.index(updatedBook.getId(), updatedBook.getTitle(), updatedBook.getAuthor(), updatedBook.getIsbn());
+        BookDTO updated = convertToDTO(updatedBook);
+        recordChange(updatedBook.getId(), BookChangeDTO.Type.UPDATED, updated);
+        readYourWrites.recordWrite();
+        return updated;
     }
     
+    @Transactional
     public void deleteBook(Long id) {
         if (!bookRepository.existsById(id)) {
             throw new ResourceNotFoundException("Book not found with id: " + id);
         }
         bookRepository.deleteById(id);
+        availabilityIndex.remove(id);
+        searchIndex.remove(id);
+        recordChange(id, BookChangeDTO.Type.DELETED, null);
+        readYourWrites.recordWrite();
     }
     
     public void borrowBook(Long bookId) {
-        Book book = bookRepository.findById(bookId)
-            .orElseThrow(() -> new ResourceNotFoundException("Book not found with id: " + bookId));
+        BookAvailabilityIndex.Claim claim = availabilityIndex.claim(bookId);
+        if (claim == BookAvailabilityIndex.Claim.UNKNOWN) {
+            Book book = bookRepository.findById(bookId)
+                .orElseThrow(() -> new ResourceNotFoundException("Book not found with id: " + bookId));
+            claim = availabilityIndex.claim(bookId, book.isBorrowed());
+        }
         
-        if (book.isBorrowed()) {
+        if (claim != BookAvailabilityIndex.Claim.CLAIMED) {
             throw new IllegalStateException("Book is already borrowed");
         }
         
-        book.setBorrowed(true);
-        bookRepository.save(book);
+        int updated;
+        try {
+            updated = bookRepository.markBorrowed(bookId);
+        } catch (RuntimeException ex) {
+            availabilityIndex.evict(bookId);
+            throw ex;
+        }
+        
+        if (updated == 0) {
+            // the row was deleted or borrowed outside this instance; resync on next access
+            availabilityIndex.evict(bookId);
+            if (!bookRepository.existsById(bookId)) {
+                throw new ResourceNotFoundException("Book not found with id: " + bookId);
+            }
+            throw new IllegalStateException("Book is already borrowed");
+        }
+        recordChange(bookId, BookChangeDTO.Type.BORROWED, null);
     }
     
     public void returnBook(Long bookId) {
-        Book book = bookRepository.findById(bookId)
-            .orElseThrow(() -> new ResourceNotFoundException("Book not found with id: " + bookId));
-        
-        if (!book.isBorrowed()) {
+        if (bookRepository.markReturned(bookId) == 0) {
+            availabilityIndex.evict(bookId);
+            if (!bookRepository.existsById(bookId)) {
+                throw new ResourceNotFoundException("Book not found with id: " + bookId);
+            }
             throw new IllegalStateException("Book is not currently borrowed");
         }
+        availabilityIndex.markAvailable(bookId);
+        recordChange(bookId, BookChangeDTO.Type.RETURNED, null);
+    }
+    
+    /**
+     * Passes a book that was returned earlier in the current transaction straight on to the
+     * next borrower, without it ever showing as available.
+     */
+    public void handOff(Long bookId) {
+        if (bookRepository.markBorrowed(bookId) == 0) {
+            throw new IllegalStateException("Book could not be handed off");
+        }
+        availabilityIndex.markBorrowed(bookId);
+        recordChange(bookId, BookChangeDTO.Type.BORROWED, null);
+    }
+    
+    /**
+     * Borrows every available book in the list with one conditional UPDATE. Books that are
+     * missing or already out are reported per item; they do not fail the rest of the batch.
+     */
+    public BatchResultDTO borrowBooks(List<Long> bookIds) {
+        Set<Long> ids = new LinkedHashSet<>(bookIds);
+        seedAvailability(ids);
+        
+        Map<Long, BatchResultDTO.Status> outcomes = new LinkedHashMap<>();
+        List<Long> claimed = new ArrayList<>();
+        for (Long id : ids) {
+            switch (availabilityIndex.claim(id)) {
+                case CLAIMED -> {
+                    claimed.add(id);
+                    outcomes.put(id, BatchResultDTO.Status.SUCCESS);
+                }
+                case CONFLICT -> outcomes.put(id, BatchResultDTO.Status.CONFLICT);
+                case UNKNOWN -> outcomes.put(id, BatchResultDTO.Status.NOT_FOUND);
+            }
+        }
+        
+        if (!claimed.isEmpty()) {
+            int updated;
+            try {
+                updated = bookRepository.markAllBorrowed(claimed);
+            } catch (RuntimeException ex) {
+                claimed.forEach(availabilityIndex::evict);
+                throw ex;
+            }
+            if (updated != claimed.size()) {
+                // some rows changed outside this instance; we cannot tell which, so fail the batch
+                claimed.forEach(availabilityIndex::evict);
+                throw new IllegalStateException("Some books were borrowed concurrently, please retry");
+            }
+            claimed.forEach(id -> recordChange(id, BookChangeDTO.Type.BORROWED, null));
+        }
         
-        book.setBorrowed(false);
-        bookRepository.save(book);
+        return toBatchResult(outcomes, "Book is already borrowed");
+    }
+    
+    /**
+     * Returns every borrowed book in the list with one conditional UPDATE. Books that are
+     * missing or not currently borrowed are reported per item.
+     */
+    public BatchResultDTO returnBooks(List<Long> bookIds) {
+        Set<Long> ids = new LinkedHashSet<>(bookIds);
+        Map<Long, Boolean> current = new LinkedHashMap<>();
+        for (BookAvailability row : bookRepository.findAvailabilityByIdIn(ids)) {
+            current.put(row.getId(), row.isBorrowed());
+        }
+        
+        Map<Long, BatchResultDTO.Status> outcomes = new LinkedHashMap<>();
+        List<Long> candidates = new ArrayList<>();
+        for (Long id : ids) {
+            Boolean borrowed = current.get(id);
+            if (borrowed == null) {
+                outcomes.put(id, BatchResultDTO.Status.NOT_FOUND);
+            } else if (!borrowed) {
+                outcomes.put(id, BatchResultDTO.Status.CONFLICT);
+            } else {
+                candidates.add(id);
+                outcomes.put(id, BatchResultDTO.Status.SUCCESS);
+            }
+        }
+        
+        if (!candidates.isEmpty()) {
+            if (bookRepository.markAllReturned(candidates) != candidates.size()) {
+                candidates.forEach(availabilityIndex::evict);
+                throw new IllegalStateException("Some books were returned concurrently, please retry");
+            }
+            candidates.forEach(availabilityIndex::markAvailable);
+            candidates.forEach(id -> recordChange(id, BookChangeDTO.Type.RETURNED, null));
+        }
+        
+        return toBatchResult(outcomes, "Book is not currently borrowed");
+    }
+    
+    /**
+     * Writes the change to the outbox in the current transaction. Once that commits, new
+     * lookups stop joining reads started before it, the cached book is evicted and the
+     * change feed announces it. Loads are detached before the eviction, so one that read
+     * the old row can neither cache it afterwards nor have cached it before.
+     */
+    private void recordChange(Long bookId, BookChangeDTO.Type type, BookDTO state) {
+        outboxService.record(OutboxService.BOOK, bookId, type.name(), state);
+        TransactionCallbacks.afterCommit(() -> {
+            bookLookups.forget(bookId);
+            Cache cache = cacheManager.getCache(CacheConfig.BOOKS);
+            if (cache != null) {
+                // immediate; a deferred evict registered during afterCommit would never run
+                cache.evictIfPresent(bookId);
+            }
+            changeFeed.publish(bookId, type);
+        });
+    }
+    
+    private void seedAvailability(Set<Long> ids) {
+        List<Long> unknown = new ArrayList<>();
+        for (Long id : ids) {
+            if (availabilityIndex.isBorrowed(id) == null) {
+                unknown.add(id);
+            }
+        }
+        if (unknown.isEmpty()) {
+            return;
+        }
+        for (BookAvailability row : bookRepository.findAvailabilityByIdIn(unknown)) {
+            availabilityIndex.seed(row.getId(), row.isBorrowed());
+        }
+    }
+    
+    /**
+     * The borrowed flag resolved for this search, else the one in the availability index.
+     */
+    private Boolean borrowed(Long id, Map<Long, Boolean> resolved) {
+        return resolved.containsKey(id) ? resolved.get(id) : availabilityIndex.isBorrowed(id);
+    }
+    
+    /**
+     * Resolves each id from the book cache, else from the database, recording null for books
+     * that no longer exist. Rows read from the database also seed the availability index.
+     */
+    private void resolveAvailability(List<Long> ids, Map<Long, Boolean> resolved) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        Cache cache = cacheManager.getCache(CacheConfig.BOOKS);
+        List<Long> uncached = new ArrayList<>();
+        for (Long id : ids) {
+            BookDTO cached = cache == null ? null : cache.get(id, BookDTO.class);
+            resolved.put(id, cached == null ? null : cached.isBorrowed());
+            if (cached == null) {
+                uncached.add(id);
+            }
+        }
+        if (uncached.isEmpty()) {
+            return;
+        }
+        for (BookAvailability row : bookRepository.findAvailabilityByIdIn(uncached)) {
+            resolved.put(row.getId(), row.isBorrowed());
+            availabilityIndex.seed(row.getId(), row.isBorrowed());
+        }
+    }
+    
+    private BatchResultDTO toBatchResult(Map<Long, BatchResultDTO.Status> outcomes, String conflictMessage) {
+        BatchResultDTO result = new BatchResultDTO();
+        outcomes.forEach((id, status) -> {
+            switch (status) {
+                case SUCCESS -> result.add(id, status, null);
+                case CONFLICT -> result.add(id, status, conflictMessage);
+                case NOT_FOUND -> result.add(id, status, "Book not found with id: " + id);
+            }
+        });
+        return result;
     }
     
-    private BookDTO convertToDTO(Book book) {
+    BookDTO convertToDTO(Book book) {
         BookDTO dto = new BookDTO();
         dto.setId(book.getId());
         dto.setTitle(book.getTitle());
         dto.setAuthor(book.getAuthor());
         dto.setIsbn(book.getIsbn());
         dto.setBorrowed(book.isBorrowed());
+        dto.setVersion(book.getVersion());
+        dto.setUpdatedAt(book.getUpdatedAt());
         return dto;
     }
 }
\ No newline at end of file
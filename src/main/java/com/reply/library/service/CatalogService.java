@@ -0,0 +1,43 @@
+package com.reply.library.service;
+
+import com.reply.library.config.AsyncConfig;
+import com.reply.library.dto.BookDTO;
+import com.reply.library.dto.MemberDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking facade over the catalog reads: each call returns at once and completes on
+ * the catalog executor, so the servlet thread is released while the read runs. Reads go
+ * through {@link BookService} and {@link MemberService}, so they share their caches and
+ * return the same DTOs.
+ */
+@Service
+public class CatalogService {
+    
+    @Autowired
+    private BookService bookService;
+    
+    @Autowired
+    private MemberService memberService;
+    
+    @Async(AsyncConfig.CATALOG_EXECUTOR)
+    public CompletableFuture<Page<BookDTO>> getAllBooks(Pageable pageable) {
+        return CompletableFuture.completedFuture(bookService.getAllBooks(pageable));
+    }
+    
+    @Async(AsyncConfig.CATALOG_EXECUTOR)
+    public CompletableFuture<BookDTO> getBookById(Long id) {
+        return CompletableFuture.completedFuture(bookService.getBookById(id));
+    }
+    
+    @Async(AsyncConfig.CATALOG_EXECUTOR)
+    public CompletableFuture<MemberDTO> getMemberById(Long id) {
+        return CompletableFuture.completedFuture(memberService.getMemberById(id));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,39 @@
+package com.reply.library.service;
+
+import com.reply.library.dto.HoldDTO;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Parks long-poll requests waiting on a hold and completes them when the hold is fulfilled
+ * or cancelled. Waiters are only known to the instance that received them; a waiter on
+ * another instance finds out on its next poll.
+ */
+@Component
+public class HoldNotifier {
+    
+    private final ConcurrentHashMap<Long, List<DeferredResult<HoldDTO>>> waiters = new ConcurrentHashMap<>();
+    
+    public void await(Long holdId, DeferredResult<HoldDTO> result) {
+        waiters.computeIfAbsent(holdId, id -> new CopyOnWriteArrayList<>()).add(result);
+        result.onCompletion(() -> waiters.computeIfPresent(holdId, (id, list) -> {
+            list.remove(result);
+            return list.isEmpty() ? null : list;
+        }));
+    }
+    
+    public void publish(HoldDTO hold) {
+        List<DeferredResult<HoldDTO>> parked = waiters.remove(hold.getId());
+        if (parked != null) {
+            parked.forEach(result -> result.setResult(hold));
+        }
+    }
+    
+    public int waiting() {
+        return waiters.values().stream().mapToInt(List::size).sum();
+    }
+}
\ No newline at end of file
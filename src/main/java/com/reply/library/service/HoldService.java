@@ -0,0 +1,110 @@
+package com.reply.library.service;
+
+import com.reply.library.dto.HoldDTO;
+import com.reply.library.entity.Book;
+import com.reply.library.entity.Hold;
+import com.reply.library.exception.ResourceNotFoundException;
+import com.reply.library.repository.BookRepository;
+import com.reply.library.repository.HoldRepository;
+import com.reply.library.util.TransactionCallbacks;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Per-book reservation queues. A hold can only be placed on a book that is out; when the
+ * book comes back, {@link LibraryService#returnBook(Long)} hands it straight to the head of
+ * the queue, so waiting members never race each other on the borrow endpoint.
+ * <p>
+ * Placing a hold locks the book row with {@link BookRepository#findByIdForUpdate}, and a
+ * return locks it with its conditional UPDATE, so a hold is either seen by the return or
+ * rejected because the book is already back on the shelf. Holds, borrows and returns of
+ * the same book therefore run one at a time, each waiting for the previous commit.
+ */
+@Service
+public class HoldService {
+    
+    @Autowired
+    private HoldRepository holdRepository;
+    
+    @Autowired
+    private BookRepository bookRepository;
+    
+    @Autowired
+    private HoldNotifier holdNotifier;
+    
+    @Transactional
+    public HoldDTO placeHold(Long bookId, Long memberId) {
+        Book book = bookRepository.findByIdForUpdate(bookId)
+            .orElseThrow(() -> new ResourceNotFoundException("Book not found with id: " + bookId));
+        if (!book.isBorrowed()) {
+            throw new IllegalStateException("Book is available, borrow it instead");
+        }
+        if (holdRepository.existsByBookIdAndMemberIdAndFulfilledAtIsNull(bookId, memberId)) {
+            throw new IllegalStateException("Member already has a hold on this book");
+        }
+        
+        Hold hold = holdRepository.save(new Hold(bookId, memberId, Instant.now()));
+        return convertToDTO(hold);
+    }
+    
+    @Transactional(readOnly = true)
+    public HoldDTO getHold(Long holdId) {
+        Hold hold = holdRepository.findById(holdId)
+            .orElseThrow(() -> new ResourceNotFoundException("Hold not found with id: " + holdId));
+        return convertToDTO(hold);
+    }
+    
+    /**
+     * Withdraws a waiting hold. Fulfilled holds are history and cannot be cancelled.
+     */
+    @Transactional
+    public void cancelHold(Long holdId) {
+        Hold hold = holdRepository.findById(holdId)
+            .orElseThrow(() -> new ResourceNotFoundException("Hold not found with id: " + holdId));
+        if (hold.getFulfilledAt() != null) {
+            throw new IllegalStateException("Hold was already fulfilled");
+        }
+        holdRepository.delete(hold);
+        
+        HoldDTO cancelled = convertToDTO(hold);
+        cancelled.setStatus(HoldDTO.Status.CANCELLED);
+        cancelled.setPosition(null);
+        TransactionCallbacks.afterCommit(() -> holdNotifier.publish(cancelled));
+    }
+    
+    /**
+     * Fulfils the head of the book's queue, if any. Must run in the caller's transaction,
+     * after the book row has been locked; waiters are notified once it commits.
+     *
+     * @return the fulfilled hold, empty if nobody is waiting
+     */
+    @Transactional
+    public Optional<HoldDTO> fulfilNext(Long bookId) {
+        return holdRepository.findFirstByBookIdAndFulfilledAtIsNullOrderByIdAsc(bookId).map(hold -> {
+            hold.setFulfilledAt(Instant.now());
+            HoldDTO fulfilled = convertToDTO(hold);
+            TransactionCallbacks.afterCommit(() -> holdNotifier.publish(fulfilled));
+            return fulfilled;
+        });
+    }
+    
+    HoldDTO convertToDTO(Hold hold) {
+        HoldDTO dto = new HoldDTO();
+        dto.setId(hold.getId());
+        dto.setBookId(hold.getBookId());
+        dto.setMemberId(hold.getMemberId());
+        dto.setPlacedAt(hold.getPlacedAt());
+        dto.setFulfilledAt(hold.getFulfilledAt());
+        if (hold.getFulfilledAt() != null) {
+            dto.setStatus(HoldDTO.Status.FULFILLED);
+        } else {
+            dto.setStatus(HoldDTO.Status.WAITING);
+            dto.setPosition(holdRepository.countByBookIdAndFulfilledAtIsNullAndIdLessThan(hold.getBookId(), hold.getId()) + 1);
+        }
+        return dto;
+    }
+}
\ No newline at end of file
@@ -1,9 +1,14 @@
 package com.reply.library.service;
 
+import com.reply.library.config.ReadYourWritesTracker;
+import com.reply.library.dto.BatchResultDTO;
+import com.reply.library.dto.HoldDTO;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
+
 @Service
 @Transactional
 public class LibraryService {
@@ -14,15 +19,75 @@ public class LibraryService {
     @Autowired
     private MemberService memberService;
     
+    @Autowired
+    private LoanService loanService;
+    
+    @Autowired
+    private HoldService holdService;
+    
+    @Autowired
+    private ReadYourWritesTracker readYourWrites;
+    
     public void borrowBook(Long bookId, Long memberId) {
         if (!memberService.existsById(memberId)) {
             throw new IllegalArgumentException("Member not found with id: " + memberId);
         }
         
         bookService.borrowBook(bookId);
+        loanService.openLoan(bookId, memberId);
+        readYourWrites.recordWrite();
     }
     
+    /**
+     * Returns the book and, if members are queued for it, lends it to the first of them in
+     * the same transaction.
+     */
     public void returnBook(Long bookId) {
         bookService.returnBook(bookId);
+        loanService.closeLoan(bookId);
+        handOffToNextHold(bookId);
+        readYourWrites.recordWrite();
+    }
+    
+    public BatchResultDTO borrowBooks(Long memberId, List<Long> bookIds) {
+        if (!memberService.existsById(memberId)) {
+            throw new IllegalArgumentException("Member not found with id: " + memberId);
+        }
+        
+        BatchResultDTO result = bookService.borrowBooks(bookIds);
+        loanService.openLoans(succeeded(result), memberId);
+        readYourWrites.recordWrite();
+        return result;
+    }
+    
+    public BatchResultDTO returnBooks(List<Long> bookIds) {
+        BatchResultDTO result = bookService.returnBooks(bookIds);
+        List<Long> returned = succeeded(result);
+        loanService.closeLoans(returned);
+        returned.forEach(this::handOffToNextHold);
+        readYourWrites.recordWrite();
+        return result;
+    }
+    
+    private void handOffToNextHold(Long bookId) {
+        holdService.fulfilNext(bookId).ifPresent(hold -> {
+            bookService.handOff(bookId);
+            loanService.openLoan(bookId, hold.getMemberId());
+        });
+    }
+    
+    public HoldDTO placeHold(Long bookId, Long memberId) {
+        if (!memberService.existsById(memberId)) {
+            throw new IllegalArgumentException("Member not found with id: " + memberId);
+        }
+        
+        return holdService.placeHold(bookId, memberId);
+    }
+    
+    private static List<Long> succeeded(BatchResultDTO result) {
+        return result.getResults().stream()
+            .filter(item -> item.getStatus() == BatchResultDTO.Status.SUCCESS)
+            .map(BatchResultDTO.ItemResult::getBookId)
+            .toList();
     }
 }
\ No newline at end of file
@@ -0,0 +1,114 @@
+package com.reply.library.service;
+
+import com.reply.library.dto.CursorPageDTO;
+import com.reply.library.dto.LoanDTO;
+import com.reply.library.entity.Loan;
+import com.reply.library.repository.LoanRepository;
+import com.reply.library.util.CursorCodec;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Loan ledger. Writes join the caller's transaction, so a loan is opened or closed
+ * together with the book's borrowed flag or not at all.
+ */
+@Service
+public class LoanService {
+    
+    @Autowired
+    private LoanRepository loanRepository;
+    
+    @Value("${library.loans.period:14d}")
+    private Duration loanPeriod = Duration.ofDays(14);
+    
+    @Transactional
+    public void openLoan(Long bookId, Long memberId) {
+        openLoans(List.of(bookId), memberId);
+    }
+    
+    @Transactional
+    public void openLoans(Collection<Long> bookIds, Long memberId) {
+        if (bookIds.isEmpty()) {
+            return;
+        }
+        // millisecond precision keeps the overdue cursor exact on every database
+        Instant now = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+        Instant dueAt = now.plus(loanPeriod);
+        List<Loan> loans = new ArrayList<>(bookIds.size());
+        for (Long bookId : bookIds) {
+            loans.add(new Loan(bookId, memberId, now, dueAt));
+        }
+        loanRepository.saveAll(loans);
+    }
+    
+    @Transactional
+    public void closeLoan(Long bookId) {
+        loanRepository.closeOpenLoan(bookId, Instant.now().truncatedTo(ChronoUnit.MILLIS));
+    }
+    
+    @Transactional
+    public void closeLoans(Collection<Long> bookIds) {
+        if (!bookIds.isEmpty()) {
+            loanRepository.closeOpenLoans(bookIds, Instant.now().truncatedTo(ChronoUnit.MILLIS));
+        }
+    }
+    
+    @Transactional(readOnly = true)
+    public List<LoanDTO> getOpenLoans(Long memberId) {
+        return loanRepository.findByMemberIdAndReturnedAtIsNullOrderByDueAtAsc(memberId)
+            .stream().map(this::convertToDTO).toList();
+    }
+    
+    /**
+     * Open loans past their due date, oldest first. {@code after} is the {@code next} token
+     * of the previous page, or null for the first one.
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDTO<LoanDTO> getOverdueLoans(String after, int size) {
+        Instant afterDue = Instant.EPOCH;
+        long afterId = 0;
+        if (after != null && !after.isEmpty()) {
+            long[] position = CursorCodec.decode(after, 2);
+            afterDue = Instant.ofEpochMilli(position[0]);
+            afterId = position[1];
+        }
+        
+        List<Loan> rows = loanRepository.findOverdueAfter(Instant.now(), afterDue, afterId, PageRequest.of(0, size + 1));
+        List<LoanDTO> content = new ArrayList<>(Math.min(rows.size(), size));
+        for (int i = 0; i < rows.size() && i < size; i++) {
+            content.add(convertToDTO(rows.get(i)));
+        }
+        String next = null;
+        if (rows.size() > size) {
+            LoanDTO last = content.get(size - 1);
+            next = CursorCodec.encode(last.getDueAt().toEpochMilli(), last.getId());
+        }
+        return new CursorPageDTO<>(content, next, null);
+    }
+    
+    @Transactional(readOnly = true)
+    public long countOverdueLoans() {
+        return loanRepository.countByReturnedAtIsNullAndDueAtBefore(Instant.now());
+    }
+    
+    LoanDTO convertToDTO(Loan loan) {
+        LoanDTO dto = new LoanDTO();
+        dto.setId(loan.getId());
+        dto.setBookId(loan.getBookId());
+        dto.setMemberId(loan.getMemberId());
+        dto.setBorrowedAt(loan.getBorrowedAt());
+        dto.setDueAt(loan.getDueAt());
+        dto.setReturnedAt(loan.getReturnedAt());
+        return dto;
+    }
+}
\ No newline at end of file
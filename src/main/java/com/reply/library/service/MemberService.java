@@ -1,36 +1,195 @@
 package com.reply.library.service;
 
+import com.reply.library.config.CacheConfig;
+import com.reply.library.config.ReadYourWritesTracker;
+import com.reply.library.config.ReplicaRoutingDataSource;
+import com.reply.library.dto.CursorPageDTO;
+import com.reply.library.dto.LookupResultDTO;
 import com.reply.library.dto.MemberDTO;
 import com.reply.library.entity.Member;
 import com.reply.library.exception.ResourceNotFoundException;
 import com.reply.library.repository.MemberRepository;
+import com.reply.library.util.BulkLookup;
+import com.reply.library.util.CursorCodec;
+import com.reply.library.util.FieldProjection;
+import com.reply.library.util.SingleFlight;
+import com.reply.library.util.TransactionCallbacks;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 public class MemberService {
     
+    /**
+     * The {@link MemberDTO} properties {@code ?fields=} may name, mapped to the
+     * {@link Member} attributes they are read from.
+     */
+    public static final FieldProjection<MemberDTO> FIELDS = FieldProjection.of(Member.class, MemberDTO::new)
+        .field("id", "id", MemberDTO::setId)
+        .field("name", "name", MemberDTO::setName)
+        .field("email", "email", MemberDTO::setEmail)
+        .field("version", "version", MemberDTO::setVersion)
+        .field("updatedAt", "updatedAt", MemberDTO::setUpdatedAt);
+    
     @Autowired
     private MemberRepository memberRepository;
     
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @Autowired
+    private OutboxService outboxService;
+    
+    @Autowired
+    private SingleFlight<Long, MemberDTO> memberLookups;
+    
+    @Autowired
+    private CacheManager cacheManager;
+    
+    @Autowired
+    private ReadYourWritesTracker readYourWrites;
+    
+    @Value("${library.lookup.chunk-size:500}")
+    private int lookupChunkSize = 500;
+    
+    @Transactional
     public MemberDTO createMember(MemberDTO memberDTO) {
         Member member = new Member(memberDTO.getName(), memberDTO.getEmail());
         Member savedMember = memberRepository.save(member);
-        return convertToDTO(savedMember);
+        MemberDTO created = convertToDTO(savedMember);
+        outboxService.record(OutboxService.MEMBER, created.getId(), "CREATED", created);
+        readYourWrites.recordWrite();
+        return created;
     }
     
+    @Transactional(readOnly = true)
     public Page<MemberDTO> getAllMembers(Pageable pageable) {
-        return memberRepository.findAll(pageable).map(this::convertToDTO);
+        return memberRepository.findAllDtos(pageable);
+    }
+    
+    /**
+     * Like {@link #getAllMembers(Pageable)}, but only the given {@link #FIELDS} are read,
+     * plus the id and version for the list's ETag.
+     *
+     * @param fields the properties to read, null for all of them
+     */
+    @Transactional(readOnly = true)
+    public Page<MemberDTO> getAllMembers(Pageable pageable, Set<String> fields) {
+        if (fields == null) {
+            return memberRepository.findAllDtos(pageable);
+        }
+        List<MemberDTO> content = FIELDS.select(entityManager, fields, null, (int) pageable.getOffset(), pageable.getPageSize());
+        return PageableExecutionUtils.getPage(content, pageable, memberRepository::count);
+    }
+    
+    @Transactional(readOnly = true)
+    public CursorPageDTO<MemberDTO> getMembersAfter(long afterId, int size, boolean includeTotal) {
+        return getMembersAfter(afterId, size, includeTotal, null);
+    }
+    
+    /**
+     * Keyset variant of {@link #getAllMembers(Pageable, Set)}; reads one extra row to decide
+     * whether there is a next page instead of counting. The id and version are always read.
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDTO<MemberDTO> getMembersAfter(long afterId, int size, boolean includeTotal, Set<String> fields) {
+        List<MemberDTO> rows;
+        if (fields == null) {
+            rows = memberRepository.findDtosAfter(afterId, PageRequest.of(0, size + 1));
+        } else {
+            rows = FIELDS.select(entityManager, fields, afterId, 0, size + 1);
+        }
+        List<MemberDTO> content = rows.size() > size ? rows.subList(0, size) : rows;
+        String next = rows.size() > size ? CursorCodec.encode(content.get(size - 1).getId()) : null;
+        Long total = includeTotal ? memberRepository.count() : null;
+        return new CursorPageDTO<>(content, next, total);
     }
     
+    /**
+     * Hands every member to {@code action} in id order without accumulating them: rows are
+     * streamed from the database and detached once converted, so memory stays flat for
+     * full-table exports.
+     */
+    @Transactional(readOnly = true)
+    public void forEachMember(Consumer<MemberDTO> action) {
+        try (Stream<Member> members = memberRepository.streamAllByOrderByIdAsc()) {
+            members.forEach(member -> {
+                action.accept(convertToDTO(member));
+                entityManager.detach(member);
+            });
+        }
+    }
+    
+    /**
+     * Served from the member cache; concurrent misses for the same id share one query, and
+     * a load that overlapped a committed change is not cached. See
+     * {@link BookService#getBookById(Long)}.
+     */
     public MemberDTO getMemberById(Long id) {
-        Member member = memberRepository.findById(id)
+        Cache cache = cacheManager.getCache(CacheConfig.MEMBERS);
+        MemberDTO cached = cache == null ? null : cache.get(id, MemberDTO.class);
+        if (cached != null) {
+            return cached;
+        }
+        return memberLookups.execute(id, () -> ReplicaRoutingDataSource.onPrimary(() -> memberRepository.findDtoById(id))
+                .orElseThrow(() -> new ResourceNotFoundException("Member not found with id: " + id)),
+            member -> {
+                if (cache != null && !TransactionSynchronizationManager.isActualTransactionActive()) {
+                    cache.putIfAbsent(id, member);
+                }
+            });
+    }
+    
+    /**
+     * The version {@link #getMemberById(Long)} would serve the member at; see
+     * {@link BookService#getBookVersion(Long)}.
+     */
+    public long getMemberVersion(Long id) {
+        Cache cache = cacheManager.getCache(CacheConfig.MEMBERS);
+        MemberDTO cached = cache == null ? null : cache.get(id, MemberDTO.class);
+        if (cached != null && cached.getVersion() != null) {
+            return cached.getVersion();
+        }
+        return ReplicaRoutingDataSource.onPrimary(() -> memberRepository.findVersionById(id))
             .orElseThrow(() -> new ResourceNotFoundException("Member not found with id: " + id));
-        return convertToDTO(member);
     }
     
+    /**
+     * Resolves many members in one call, from the member cache where possible and otherwise
+     * with chunked {@code IN} queries; see {@link BookService#lookupBooks(List, List)}.
+     */
+    @Transactional(readOnly = true)
+    public LookupResultDTO<MemberDTO> lookupMembers(List<Long> ids) {
+        Set<Long> keys = new LinkedHashSet<>(ids);
+        Map<Long, MemberDTO> found = BulkLookup.find(keys, cacheManager.getCache(CacheConfig.MEMBERS), MemberDTO.class,
+            lookupChunkSize, memberRepository::findDtosByIdIn, MemberDTO::getId);
+        LookupResultDTO<MemberDTO> result = new LookupResultDTO<>();
+        result.getContent().addAll(found.values());
+        result.setMissingIds(BulkLookup.missing(keys, found));
+        return result;
+    }
+    
+    @Transactional
     public MemberDTO updateMember(Long id, MemberDTO memberDTO) {
         Member member = memberRepository.findById(id)
             .orElseThrow(() -> new ResourceNotFoundException("Member not found with id: " + id));
@@ -39,25 +198,57 @@ public class MemberService {
         member.setEmail(memberDTO.getEmail());
         
         Member updatedMember = memberRepository.save(member);
-        return convertToDTO(updatedMember);
+        entityManager.flush();
+        MemberDTO updated = convertToDTO(updatedMember);
+        outboxService.record(OutboxService.MEMBER, id, "UPDATED", updated);
+        invalidateAfterCommit(id);
+        readYourWrites.recordWrite();
+        return updated;
     }
     
+    @CacheEvict(cacheNames = CacheConfig.MEMBER_EXISTS, key = "#id")
+    @Transactional
     public void deleteMember(Long id) {
         if (!memberRepository.existsById(id)) {
             throw new ResourceNotFoundException("Member not found with id: " + id);
         }
         memberRepository.deleteById(id);
+        outboxService.record(OutboxService.MEMBER, id, "DELETED", null);
+        invalidateAfterCommit(id);
+        readYourWrites.recordWrite();
     }
     
+    /**
+     * Only positive answers are cached, so a member created after a failed lookup is
+     * visible immediately.
+     */
+    @Cacheable(cacheNames = CacheConfig.MEMBER_EXISTS, key = "#id", unless = "!#result")
+    @Transactional(readOnly = true)
     public boolean existsById(Long id) {
         return memberRepository.existsById(id);
     }
     
-    private MemberDTO convertToDTO(Member member) {
+    /**
+     * Detaches loads of the member, then evicts it, once the transaction commits; see
+     * {@code BookService.recordChange}.
+     */
+    private void invalidateAfterCommit(Long id) {
+        TransactionCallbacks.afterCommit(() -> {
+            memberLookups.forget(id);
+            Cache cache = cacheManager.getCache(CacheConfig.MEMBERS);
+            if (cache != null) {
+                cache.evictIfPresent(id);
+            }
+        });
+    }
+    
+    MemberDTO convertToDTO(Member member) {
         MemberDTO dto = new MemberDTO();
         dto.setId(member.getId());
         dto.setName(member.getName());
         dto.setEmail(member.getEmail());
+        dto.setVersion(member.getVersion());
+        dto.setUpdatedAt(member.getUpdatedAt());
         return dto;
     }
 }
\ No newline at end of file
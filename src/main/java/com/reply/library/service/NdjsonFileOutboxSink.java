@@ -0,0 +1,68 @@
+package com.reply.library.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.reply.library.dto.OutboxEventDTO;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Default {@link OutboxSink}: appends each event as one JSON line to a local file and
+ * syncs it to disk before acknowledging the batch. Tail the file, or replace this bean with
+ * a broker-backed sink.
+ */
+public class NdjsonFileOutboxSink implements OutboxSink, Closeable {
+    
+    private final Path file;
+    
+    private final ObjectMapper objectMapper;
+    
+    private FileChannel channel;
+    
+    public NdjsonFileOutboxSink(Path file, ObjectMapper objectMapper) {
+        this.file = file;
+        this.objectMapper = objectMapper;
+    }
+    
+    @Override
+    public synchronized void send(List<OutboxEventDTO> events) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        for (OutboxEventDTO event : events) {
+            buffer.write(objectMapper.writeValueAsBytes(event));
+            buffer.write('\n');
+        }
+        
+        FileChannel out = channel();
+        ByteBuffer bytes = ByteBuffer.wrap(buffer.toByteArray());
+        while (bytes.hasRemaining()) {
+            out.write(bytes);
+        }
+        out.force(false);
+    }
+    
+    @Override
+    public synchronized void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+    
+    private FileChannel channel() throws IOException {
+        if (channel == null) {
+            Path parent = file.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        }
+        return channel;
+    }
+}
\ No newline at end of file
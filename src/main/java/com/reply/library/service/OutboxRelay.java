@@ -0,0 +1,125 @@
+package com.reply.library.service;
+
+import com.reply.library.dto.OutboxEventDTO;
+import com.reply.library.entity.OutboxEvent;
+import com.reply.library.repository.OutboxRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Moves committed outbox events to the {@link OutboxSink} in batches.
+ * <p>
+ * Each batch is one transaction: lock the oldest unrelayed rows, number them after the
+ * highest position handed out so far, send them, and mark them relayed on commit. If the
+ * sink or the commit fails the rows stay unrelayed and go out again on the next run, so
+ * delivery is at least once.
+ * <p>
+ * Events are taken in id order. On a single instance that is commit order for each book
+ * or member: a change can only commit after the previous change to the same row has
+ * committed (borrows and returns wait for the row lock, updates and deletes fail their
+ * version check otherwise), so it writes its event later and gets a higher id. Across
+ * instances this does not hold, as each instance hands out ids from its own block of
+ * {@code outbox_events_seq}; consumers of a multi-instance deployment must not rely on
+ * the order of events for the same aggregate.
+ */
+@Component
+public class OutboxRelay {
+    
+    private static final Logger log = LoggerFactory.getLogger(OutboxRelay.class);
+    
+    @Autowired
+    private OutboxRepository outboxRepository;
+    
+    @Autowired
+    private OutboxService outboxService;
+    
+    @Autowired
+    private OutboxSink outboxSink;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${library.outbox.batch-size:500}")
+    private int batchSize = 500;
+    
+    @Value("${library.outbox.retention:7d}")
+    private Duration retention = Duration.ofDays(7);
+    
+    /**
+     * Relays batches until the outbox is drained or a batch fails.
+     *
+     * @return the number of events relayed
+     */
+    @Scheduled(fixedDelayString = "${library.outbox.relay-interval:PT1S}")
+    public int relay() {
+        int relayed = 0;
+        while (true) {
+            int sent;
+            try {
+                sent = transactionTemplate.execute(status -> relayBatch());
+            } catch (RuntimeException ex) {
+                meterRegistry.counter("library.outbox.failures").increment();
+                log.warn("Outbox relay failed, retrying on the next run", ex);
+                return relayed;
+            }
+            relayed += sent;
+            if (sent < batchSize) {
+                return relayed;
+            }
+        }
+    }
+    
+    /**
+     * Drops relayed events older than {@code library.outbox.retention}. Consumers that fall
+     * further behind than that have to start over from a full read.
+     */
+    @Scheduled(fixedDelayString = "${library.outbox.cleanup-interval:PT1H}")
+    public int cleanUp() {
+        int deleted = outboxRepository.deletePublishedBefore(Instant.now().minus(retention));
+        if (deleted > 0) {
+            log.info("Deleted {} relayed outbox events", deleted);
+        }
+        return deleted;
+    }
+    
+    private int relayBatch() {
+        List<OutboxEvent> batch = outboxRepository.findUnpublishedForUpdate(PageRequest.of(0, batchSize));
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        
+        long position = outboxRepository.findMaxPosition();
+        Instant now = Instant.now();
+        List<OutboxEventDTO> events = new ArrayList<>(batch.size());
+        for (OutboxEvent event : batch) {
+            event.setPosition(++position);
+            event.setPublishedAt(now);
+            events.add(outboxService.convertToDTO(event));
+        }
+        
+        try {
+            outboxSink.send(events);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        meterRegistry.counter("library.outbox.relayed").increment(events.size());
+        return events.size();
+    }
+}
\ No newline at end of file
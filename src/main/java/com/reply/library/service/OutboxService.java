@@ -0,0 +1,80 @@
+package com.reply.library.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.reply.library.dto.CursorPageDTO;
+import com.reply.library.dto.OutboxEventDTO;
+import com.reply.library.entity.OutboxEvent;
+import com.reply.library.repository.OutboxRepository;
+import com.reply.library.util.CursorCodec;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes the outbox and serves the relayed change stream. See {@link OutboxRelay} for how
+ * events get from one to the other.
+ */
+@Service
+public class OutboxService {
+    
+    public static final String BOOK = "book";
+    public static final String MEMBER = "member";
+    
+    @Autowired
+    private OutboxRepository outboxRepository;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    /**
+     * Adds an event to the caller's transaction, so it commits or rolls back with the
+     * change it describes.
+     *
+     * @param payload new state of the aggregate, or null when the event type says it all
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(String aggregateType, Long aggregateId, String eventType, Object payload) {
+        String json;
+        try {
+            json = payload == null ? null : objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Could not serialize " + aggregateType + " " + aggregateId, ex);
+        }
+        outboxRepository.save(new OutboxEvent(aggregateType, aggregateId, eventType, json, Instant.now()));
+    }
+    
+    /**
+     * Relayed events after the {@code after} token, in stream order. An empty token starts
+     * from the oldest event still retained.
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDTO<OutboxEventDTO> getEventsAfter(String after, int size) {
+        long afterPosition = after.isEmpty() ? 0L : CursorCodec.decode(after, 1)[0];
+        List<OutboxEvent> rows = outboxRepository.findByPositionGreaterThanOrderByPositionAsc(afterPosition, PageRequest.of(0, size));
+        List<OutboxEventDTO> content = new ArrayList<>(rows.size());
+        for (OutboxEvent row : rows) {
+            content.add(convertToDTO(row));
+        }
+        // consumers keep polling from the last event they got, so there is always a token
+        long last = content.isEmpty() ? afterPosition : content.get(content.size() - 1).getPosition();
+        return new CursorPageDTO<>(content, CursorCodec.encode(last), null);
+    }
+    
+    OutboxEventDTO convertToDTO(OutboxEvent event) {
+        OutboxEventDTO dto = new OutboxEventDTO();
+        dto.setPosition(event.getPosition());
+        dto.setAggregateType(event.getAggregateType());
+        dto.setAggregateId(event.getAggregateId());
+        dto.setType(event.getEventType());
+        dto.setPayload(event.getPayload());
+        dto.setCreatedAt(event.getCreatedAt());
+        return dto;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,24 @@
+package com.reply.library.service;
+
+import com.reply.library.dto.OutboxEventDTO;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Destination of the relayed change stream. The shape matches a Kafka producer: send each
+ * event to topic {@code library.<aggregateType>} keyed by {@code aggregateId}, so all
+ * changes to one book or member land in one partition in order, and flush before
+ * returning.
+ * <p>
+ * Delivery is at least once. A batch is only marked as relayed after this method returns,
+ * and a failure or crash before that sends the whole batch again, so consumers should
+ * ignore positions they have already seen.
+ */
+public interface OutboxSink {
+    
+    /**
+     * Delivers a batch in position order and returns once it is durable.
+     */
+    void send(List<OutboxEventDTO> events) throws IOException;
+}
\ No newline at end of file
@@ -0,0 +1,46 @@
+package com.reply.library.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Periodically counts overdue loans and publishes the count as {@code library.loans.overdue}.
+ * The count is one query over {@code idx_loans_open_due}, so no loan is read or mapped.
+ */
+@Component
+public class OverdueLoanSweeper {
+    
+    private static final Logger log = LoggerFactory.getLogger(OverdueLoanSweeper.class);
+    
+    private final AtomicLong overdue = new AtomicLong();
+    
+    @Autowired
+    private LoanService loanService;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @PostConstruct
+    void registerGauge() {
+        Gauge.builder("library.loans.overdue", overdue, AtomicLong::get)
+            .description("Open loans past their due date at the last sweep")
+            .register(meterRegistry);
+    }
+    
+    @Scheduled(fixedDelayString = "${library.loans.overdue-sweep-interval:PT15M}",
+               initialDelayString = "${library.loans.overdue-sweep-interval:PT15M}")
+    public long sweep() {
+        long count = loanService.countOverdueLoans();
+        overdue.set(count);
+        log.info("Overdue sweep found {} overdue loans", count);
+        return count;
+    }
+}
\ No newline at end of file
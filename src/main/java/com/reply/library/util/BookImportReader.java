@@ -0,0 +1,185 @@
+package com.reply.library.util;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.reply.library.dto.BookDTO;
+import org.springframework.http.MediaType;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Reads books for a catalog import one line at a time, so the request body is never
+ * buffered in full. Supports NDJSON (one {@link BookDTO} object per line) and CSV with a
+ * header row naming the title, author and isbn columns. A malformed line is reported as a
+ * row error and does not stop the import. A CSV header is read and checked by
+ * {@link #open}, so a bad one can be rejected before any response is written.
+ */
+public abstract class BookImportReader implements Closeable {
+    
+    public static final MediaType TEXT_CSV = MediaType.parseMediaType("text/csv");
+    
+    private final BufferedReader reader;
+    private long lineNumber;
+    
+    protected BookImportReader(InputStream in) {
+        this.reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+    }
+    
+    /**
+     * @throws IllegalArgumentException if the format is not supported, or a CSV header is
+     *                                  missing a column
+     */
+    public static BookImportReader open(MediaType contentType, InputStream in, ObjectMapper objectMapper)
+            throws IOException {
+        if (TEXT_CSV.isCompatibleWith(contentType)) {
+            return new Csv(in);
+        }
+        if (MediaType.APPLICATION_NDJSON.isCompatibleWith(contentType)) {
+            return new Ndjson(in, objectMapper);
+        }
+        throw new IllegalArgumentException("Unsupported import format: " + contentType);
+    }
+    
+    /**
+     * @return the next data row, or null once the input is exhausted
+     */
+    public Row next() throws IOException {
+        String line = nextLine();
+        return line == null ? null : parse(lineNumber, line);
+    }
+    
+    /**
+     * @return the next non-blank line, or null once the input is exhausted
+     */
+    protected String nextLine() throws IOException {
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (!line.isBlank()) {
+                return line;
+            }
+        }
+        return null;
+    }
+    
+    protected abstract Row parse(long lineNumber, String line);
+    
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+    
+    public static class Row {
+        private final long line;
+        private final BookDTO book;
+        private final String error;
+        
+        private Row(long line, BookDTO book, String error) {
+            this.line = line;
+            this.book = book;
+            this.error = error;
+        }
+        
+        public static Row of(long line, BookDTO book) { return new Row(line, book, null); }
+        public static Row error(long line, String error) { return new Row(line, null, error); }
+        
+        public long getLine() { return line; }
+        public BookDTO getBook() { return book; }
+        public String getError() { return error; }
+    }
+    
+    private static class Ndjson extends BookImportReader {
+        private final ObjectReader objectReader;
+        
+        Ndjson(InputStream in, ObjectMapper objectMapper) {
+            super(in);
+            this.objectReader = objectMapper.readerFor(BookDTO.class);
+        }
+        
+        @Override
+        protected Row parse(long lineNumber, String line) {
+            try {
+                return Row.of(lineNumber, objectReader.readValue(line));
+            } catch (JsonProcessingException ex) {
+                return Row.error(lineNumber, "Malformed JSON: " + ex.getOriginalMessage());
+            }
+        }
+    }
+    
+    private static class Csv extends BookImportReader {
+        private int titleColumn = -1;
+        private int authorColumn = -1;
+        private int isbnColumn = -1;
+        
+        Csv(InputStream in) throws IOException {
+            super(in);
+            String header = nextLine();
+            readHeader(header == null ? List.of() : split(header));
+        }
+        
+        @Override
+        protected Row parse(long lineNumber, String line) {
+            List<String> fields = split(line);
+            int needed = Math.max(titleColumn, Math.max(authorColumn, isbnColumn));
+            if (fields.size() <= needed) {
+                return Row.error(lineNumber, "Expected at least " + (needed + 1) + " columns but found " + fields.size());
+            }
+            BookDTO book = new BookDTO(fields.get(titleColumn), fields.get(authorColumn), fields.get(isbnColumn));
+            return Row.of(lineNumber, book);
+        }
+        
+        private void readHeader(List<String> header) {
+            for (int i = 0; i < header.size(); i++) {
+                switch (header.get(i).trim().toLowerCase(Locale.ROOT)) {
+                    case "title" -> titleColumn = i;
+                    case "author" -> authorColumn = i;
+                    case "isbn" -> isbnColumn = i;
+                    default -> { }
+                }
+            }
+            if (titleColumn < 0 || authorColumn < 0 || isbnColumn < 0) {
+                throw new IllegalArgumentException("CSV import needs a header with title, author and isbn columns");
+            }
+        }
+        
+        /**
+         * Splits one RFC 4180 record; quoted fields may contain commas and doubled quotes.
+         */
+        static List<String> split(String line) {
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            for (int i = 0; i < line.length(); i++) {
+                char c = line.charAt(i);
+                if (quoted) {
+                    if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else if (c == '"') {
+                        quoted = false;
+                    } else {
+                        field.append(c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString().trim());
+                    field.setLength(0);
+                } else {
+                    field.append(c);
+                }
+            }
+            fields.add(field.toString().trim());
+            return fields;
+        }
+    }
+}
\ No newline at end of file
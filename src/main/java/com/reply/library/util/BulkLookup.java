@@ -0,0 +1,69 @@
+package com.reply.library.util;
+
+import org.springframework.cache.Cache;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Resolves many keys at once: from a cache where possible, and the rest with one query per
+ * chunk of keys, so no single {@code IN} list grows past what the database handles well.
+ * Loaded values are not put in the cache, so a bulk read does not push out the entries
+ * being read one at a time.
+ */
+public final class BulkLookup {
+    
+    private BulkLookup() {}
+    
+    /**
+     * @param keys the keys to resolve, without duplicates
+     * @param cache consulted first when not null
+     * @param loader reads the values for one chunk of keys
+     * @param keyOf the key a loaded value was found by
+     * @return the values found, in the order of {@code keys}
+     */
+    public static <K, V> Map<K, V> find(Collection<K> keys, Cache cache, Class<V> type, int chunkSize,
+                                        Function<List<K>, List<V>> loader, Function<V, K> keyOf) {
+        Map<K, V> found = new HashMap<>();
+        List<K> misses = new ArrayList<>();
+        for (K key : keys) {
+            V value = cache == null ? null : cache.get(key, type);
+            if (value == null) {
+                misses.add(key);
+            } else {
+                found.put(key, value);
+            }
+        }
+        for (int from = 0; from < misses.size(); from += chunkSize) {
+            List<K> chunk = misses.subList(from, Math.min(from + chunkSize, misses.size()));
+            loader.apply(chunk).forEach(value -> found.put(keyOf.apply(value), value));
+        }
+        
+        Map<K, V> ordered = new LinkedHashMap<>();
+        for (K key : keys) {
+            V value = found.get(key);
+            if (value != null) {
+                ordered.put(key, value);
+            }
+        }
+        return ordered;
+    }
+    
+    /**
+     * The keys {@link #find} did not resolve, in order.
+     */
+    public static <K> List<K> missing(Collection<K> keys, Map<K, ?> found) {
+        List<K> missing = new ArrayList<>();
+        for (K key : keys) {
+            if (!found.containsKey(key)) {
+                missing.add(key);
+            }
+        }
+        return missing;
+    }
+}
\ No newline at end of file
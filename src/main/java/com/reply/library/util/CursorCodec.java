@@ -0,0 +1,46 @@
+package com.reply.library.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Encodes keyset positions as opaque continuation tokens. Clients hand the token back
+ * unchanged; the format can change without breaking them.
+ */
+public final class CursorCodec {
+    
+    private CursorCodec() {}
+    
+    public static String encode(long... position) {
+        StringBuilder raw = new StringBuilder();
+        for (int i = 0; i < position.length; i++) {
+            if (i > 0) {
+                raw.append(':');
+            }
+            raw.append(position[i]);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.toString().getBytes(StandardCharsets.UTF_8));
+    }
+    
+    /**
+     * @throws IllegalArgumentException if the token was not produced by {@link #encode(long...)}
+     *                                  with the same number of components
+     */
+    public static long[] decode(String token, int components) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split(":");
+            if (parts.length != components) {
+                throw new IllegalArgumentException("Invalid cursor: " + token);
+            }
+            long[] position = new long[components];
+            for (int i = 0; i < components; i++) {
+                position[i] = Long.parseLong(parts[i]);
+            }
+            return position;
+        } catch (IllegalArgumentException ex) {
+            // also covers NumberFormatException and malformed Base64
+            throw new IllegalArgumentException("Invalid cursor: " + token);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,121 @@
+package com.reply.library.util;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+
+/**
+ * Strong entity tags built from entity versions rather than from response bodies, so a
+ * tag can be worked out, and a conditional request answered, without writing the body.
+ * A tag must be fed everything that changes the bytes written: the versions of the rows
+ * shown, any totals, and the request inputs that shape the body, such as {@code fields}
+ * and the {@code Accept} header.
+ * <p>
+ * Responses are marked {@code private, no-cache}: clients may keep them, but must
+ * revalidate before each use.
+ */
+public final class EntityTags {
+    
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+    
+    private EntityTags() {}
+    
+    public static Builder builder(String resource) {
+        return new Builder().add(resource);
+    }
+    
+    /**
+     * Whether an {@code If-None-Match} header matches the tag. As that header requires, tags
+     * are compared weakly, i.e. ignoring a {@code W/} prefix.
+     */
+    public static boolean matches(String ifNoneMatch, String tag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            candidate = candidate.trim();
+            if (candidate.startsWith("W/")) {
+                candidate = candidate.substring(2);
+            }
+            if (candidate.equals("*") || candidate.equals(tag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * A 200 response carrying the tag. Spring MVC still turns it into a 304 without writing
+     * the body if the request's {@code If-None-Match} matches.
+     *
+     * @param lastModified sent as {@code Last-Modified} unless null
+     */
+    public static ResponseEntity.BodyBuilder ok(String tag, Instant lastModified) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+            .eTag(tag)
+            .cacheControl(REVALIDATE)
+            .varyBy(HttpHeaders.ACCEPT);
+        if (lastModified != null) {
+            response.lastModified(lastModified);
+        }
+        return response;
+    }
+    
+    public static <T> ResponseEntity<T> notModified(String tag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+            .eTag(tag)
+            .cacheControl(REVALIDATE)
+            .varyBy(HttpHeaders.ACCEPT)
+            .build();
+    }
+    
+    /**
+     * Hashes the values added, in order, into a quoted tag.
+     */
+    public static final class Builder {
+        
+        private final MessageDigest digest;
+        private final ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES);
+        
+        private Builder() {
+            try {
+                digest = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException ex) {
+                throw new IllegalStateException("SHA-256 is not available", ex);
+            }
+        }
+        
+        public Builder add(long value) {
+            buffer.clear();
+            digest.update(buffer.putLong(value).array());
+            return this;
+        }
+        
+        /**
+         * Null and empty strings are told apart, as is where one string ends and the next
+         * begins.
+         */
+        public Builder add(String value) {
+            if (value == null) {
+                return add(-1L);
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            add(bytes.length);
+            digest.update(bytes);
+            return this;
+        }
+        
+        public String build() {
+            byte[] hash = digest.digest();
+            return "\"" + HexFormat.of().formatHex(hash, 0, 16) + "\"";
+        }
+    }
+}
\ No newline at end of file
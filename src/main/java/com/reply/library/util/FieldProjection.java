@@ -0,0 +1,114 @@
+package com.reply.library.util;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+/**
+ * The DTO properties {@code ?fields=} may name for one entity, each mapped to the entity
+ * attribute it is read from and the DTO setter it is written with. {@link #select} reads
+ * only the named columns into otherwise empty DTOs.
+ * <p>
+ * The entity must have {@code id} and {@code version} attributes, and both are always
+ * read: list ETags and next tokens are built from them.
+ *
+ * @param <D> the DTO type
+ */
+public final class FieldProjection<D> {
+    
+    private final Class<?> entity;
+    private final Supplier<D> factory;
+    private final Map<String, Column<D>> columns = new LinkedHashMap<>();
+    
+    private FieldProjection(Class<?> entity, Supplier<D> factory) {
+        this.entity = entity;
+        this.factory = factory;
+    }
+    
+    public static <D> FieldProjection<D> of(Class<?> entity, Supplier<D> factory) {
+        return new FieldProjection<>(entity, factory);
+    }
+    
+    /**
+     * Maps the DTO property {@code name} to the entity {@code attribute}; the value read is
+     * handed to {@code setter} as is, so its type must match the attribute's.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> FieldProjection<D> field(String name, String attribute, BiConsumer<D, T> setter) {
+        columns.put(name, new Column<>(attribute, (BiConsumer<D, Object>) setter));
+        return this;
+    }
+    
+    public Set<String> names() {
+        return Collections.unmodifiableSet(columns.keySet());
+    }
+    
+    /**
+     * Reads the given fields, plus the id and version, in id order: past {@code afterId}
+     * when one is given, else from {@code offset}.
+     *
+     * @throws IllegalArgumentException if a field is not mapped
+     */
+    public List<D> select(EntityManager entityManager, Set<String> fields, Long afterId, int offset, int limit) {
+        Set<String> names = new LinkedHashSet<>(fields);
+        names.add("id");
+        names.add("version");
+        
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<?> root = query.from(entity);
+        List<Selection<?>> selections = new ArrayList<>(names.size());
+        for (String name : names) {
+            selections.add(root.get(column(name).attribute).alias(name));
+        }
+        query.multiselect(selections).orderBy(cb.asc(root.get("id")));
+        if (afterId != null) {
+            query.where(cb.greaterThan(root.<Long>get("id"), afterId));
+        }
+        
+        List<Tuple> rows = entityManager.createQuery(query)
+            .setFirstResult(offset)
+            .setMaxResults(limit)
+            .getResultList();
+        List<D> dtos = new ArrayList<>(rows.size());
+        for (Tuple row : rows) {
+            D dto = factory.get();
+            for (String name : names) {
+                columns.get(name).setter.accept(dto, row.get(name));
+            }
+            dtos.add(dto);
+        }
+        return dtos;
+    }
+    
+    private Column<D> column(String name) {
+        Column<D> column = columns.get(name);
+        if (column == null) {
+            throw new IllegalArgumentException("Unknown field: " + name);
+        }
+        return column;
+    }
+    
+    private static final class Column<D> {
+        private final String attribute;
+        private final BiConsumer<D, Object> setter;
+        
+        private Column(String attribute, BiConsumer<D, Object> setter) {
+            this.attribute = attribute;
+            this.setter = setter;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,77 @@
+package com.reply.library.util;
+
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.springframework.http.converter.json.MappingJacksonValue;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * The properties a client asked for with {@code ?fields=id,borrowed}. Services use
+ * {@link #getFields()} to narrow what they select; {@link #apply(Object)} narrows what is
+ * written, for any DTO that carries the {@link Filtered} mix-in.
+ */
+public final class FieldSelection {
+    
+    public static final String FILTER = "fieldSelection";
+    
+    private static final FieldSelection ALL = new FieldSelection(null);
+    
+    /**
+     * Mix-in that puts a DTO under the selection filter. Registered on the application's
+     * mapper only, so other mappers serialize the DTO as usual.
+     */
+    @JsonFilter(FILTER)
+    public interface Filtered {
+    }
+    
+    private final Set<String> fields;
+    
+    private FieldSelection(Set<String> fields) {
+        this.fields = fields;
+    }
+    
+    /**
+     * @param fields comma-separated property names, null or blank for all of them
+     * @param allowed the properties of the DTO being selected from
+     * @throws IllegalArgumentException when a name is not one of {@code allowed}
+     */
+    public static FieldSelection parse(String fields, Set<String> allowed) {
+        if (fields == null || fields.isBlank()) {
+            return ALL;
+        }
+        Set<String> selected = new LinkedHashSet<>();
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (!allowed.contains(name)) {
+                throw new IllegalArgumentException("Unknown field '" + name + "', expected any of " + new TreeSet<>(allowed));
+            }
+            selected.add(name);
+        }
+        return new FieldSelection(Collections.unmodifiableSet(selected));
+    }
+    
+    /**
+     * @return the selected properties in request order, or null when all were asked for
+     */
+    public Set<String> getFields() {
+        return fields;
+    }
+    
+    /**
+     * Wraps a response body so only the selected properties of filtered DTOs in it are
+     * written. Envelopes such as pages are written in full.
+     */
+    public MappingJacksonValue apply(Object body) {
+        MappingJacksonValue value = new MappingJacksonValue(body);
+        if (fields != null) {
+            value.setFilters(new SimpleFilterProvider()
+                .addFilter(FILTER, SimpleBeanPropertyFilter.filterOutAllExcept(fields)));
+        }
+        return value;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,41 @@
+package com.reply.library.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * Writes one JSON document per line to a response stream. Write failures (usually the
+ * client going away) surface as {@link UncheckedIOException} so the writer can be used
+ * from callbacks.
+ */
+public class NdjsonWriter {
+    
+    private final OutputStream out;
+    private final ObjectWriter writer;
+    
+    public NdjsonWriter(OutputStream out, ObjectMapper objectMapper) {
+        this.out = out;
+        this.writer = objectMapper.writer();
+    }
+    
+    public void write(Object value) {
+        try {
+            out.write(writer.writeValueAsBytes(value));
+            out.write('\n');
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+    
+    public void flush() {
+        try {
+            out.flush();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+}
\ No newline at end of file
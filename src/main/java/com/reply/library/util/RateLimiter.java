@@ -0,0 +1,70 @@
+package com.reply.library.util;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Token buckets per key, each held as a single timestamp (the generic cell rate algorithm).
+ * Instead of counting tokens and refilling them, a key remembers when its bucket would next
+ * be empty; a request is let through if that moment is no more than one burst ahead of now,
+ * and pushes it one interval further. Taking a token is a compare-and-set on that timestamp,
+ * so callers never block each other.
+ * <p>
+ * Keys live in a Caffeine cache bounded by {@code maximumKeys} and dropped once a bucket
+ * has been idle long enough to be full again, so forgetting a key never lets it through
+ * more than a full bucket would. Under pressure from more keys than that, the least
+ * recently seen ones are dropped first and start over with a full bucket.
+ */
+public class RateLimiter {
+    
+    private final Cache<String, AtomicLong> cells;
+    private final LongSupplier clock;
+    private final long interval;
+    private final long tolerance;
+    
+    public RateLimiter(double permitsPerSecond, int burst, long maximumKeys) {
+        this(permitsPerSecond, burst, maximumKeys, System::nanoTime);
+    }
+    
+    RateLimiter(double permitsPerSecond, int burst, long maximumKeys, LongSupplier clock) {
+        if (permitsPerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("Rate and burst must be positive");
+        }
+        this.clock = clock;
+        this.interval = (long) (1_000_000_000L / permitsPerSecond);
+        this.tolerance = interval * (burst - 1);
+        this.cells = Caffeine.newBuilder()
+            .maximumSize(maximumKeys)
+            .expireAfterAccess(Duration.ofNanos(interval * burst))
+            .build();
+    }
+    
+    /**
+     * Takes a token from the key's bucket if one is available.
+     *
+     * @return 0 if the request may proceed, otherwise the nanoseconds until a token is free
+     */
+    public long tryAcquire(String key) {
+        long now = clock.getAsLong();
+        AtomicLong cell = cells.get(key, k -> new AtomicLong(now));
+        while (true) {
+            long emptyAt = cell.get();
+            long wait = emptyAt - tolerance - now;
+            if (wait > 0) {
+                return wait;
+            }
+            long next = (emptyAt - now > 0 ? emptyAt : now) + interval;
+            if (cell.compareAndSet(emptyAt, next)) {
+                return 0;
+            }
+        }
+    }
+    
+    public long trackedKeys() {
+        return cells.estimatedSize();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,100 @@
+package com.reply.library.util;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Collapses concurrent calls for the same key into one: the first caller runs the loader,
+ * callers arriving while it runs wait for and share its result or exception. Nothing is
+ * kept once the call finishes, so this never serves a result older than a call already
+ * in progress; use {@link #forget(Object)} after a write so later callers do not join a
+ * load that started before it.
+ * <p>
+ * Calls are counted in {@code library.singleflight.calls}, tagged with the {@code name}
+ * and with {@code outcome} {@code executed} or {@code shared}.
+ */
+public class SingleFlight<K, V> {
+    
+    private final ConcurrentHashMap<K, CompletableFuture<V>> calls = new ConcurrentHashMap<>();
+    
+    private final Counter executed;
+    
+    private final Counter shared;
+    
+    public SingleFlight(String name, MeterRegistry meterRegistry) {
+        this.executed = Counter.builder("library.singleflight.calls")
+            .tags("name", name, "outcome", "executed")
+            .register(meterRegistry);
+        this.shared = Counter.builder("library.singleflight.calls")
+            .tags("name", name, "outcome", "shared")
+            .register(meterRegistry);
+    }
+    
+    public V execute(K key, Supplier<V> loader) {
+        return execute(key, loader, value -> {});
+    }
+    
+    /**
+     * Like {@link #execute(Object, Supplier)}, and hands the loaded value to {@code publish},
+     * e.g. to cache it, unless {@link #forget(Object)} was called for the key while it was
+     * loading. The check and the publish are atomic with respect to {@code forget}: once
+     * {@code forget} returns, no load that started before it can publish anymore.
+     */
+    public V execute(K key, Supplier<V> loader, Consumer<V> publish) {
+        CompletableFuture<V> call = new CompletableFuture<>();
+        CompletableFuture<V> running = calls.putIfAbsent(key, call);
+        if (running != null) {
+            shared.increment();
+            return await(running);
+        }
+        
+        executed.increment();
+        try {
+            V value = loader.get();
+            calls.computeIfPresent(key, (k, current) -> {
+                if (current != call) {
+                    return current;
+                }
+                publish.accept(value);
+                return null;
+            });
+            call.complete(value);
+            return value;
+        } catch (RuntimeException | Error ex) {
+            call.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            calls.remove(key, call);
+        }
+    }
+    
+    /**
+     * Detaches the call in progress for {@code key}, if any; it still completes for the
+     * callers already waiting, but new callers start a fresh one, and it no longer
+     * publishes. Waits for a publish already under way.
+     */
+    public void forget(K key) {
+        calls.remove(key);
+    }
+    
+    private V await(CompletableFuture<V> running) {
+        try {
+            return running.join();
+        } catch (CompletionException ex) {
+            // rethrow what the loader threw, so callers see the same exception types
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (ex.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,29 @@
+-- Range-partitions the loan ledger by borrow date on MySQL. Not applied automatically:
+-- run it once during a maintenance window, after the application has created the table.
+--
+-- MySQL requires the partitioning column in every unique key, so the primary key becomes
+-- (id, borrowed_at). Ids still come from loans_seq and stay unique on their own.
+--
+-- Open loans live in the newest partitions, so the open-loan indexes stay small per
+-- partition, and old history can be archived by exporting and dropping whole partitions
+-- instead of running large DELETEs:
+--
+--   ALTER TABLE loans DROP PARTITION p2023;
+--
+-- Add next year's partition ahead of time by splitting p_future:
+--
+--   ALTER TABLE loans REORGANIZE PARTITION p_future INTO (
+--       PARTITION p2027 VALUES LESS THAN ('2028-01-01'),
+--       PARTITION p_future VALUES LESS THAN (MAXVALUE));
+
+ALTER TABLE loans
+    DROP PRIMARY KEY,
+    ADD PRIMARY KEY (id, borrowed_at);
+
+ALTER TABLE loans
+    PARTITION BY RANGE COLUMNS (borrowed_at) (
+        PARTITION p2024 VALUES LESS THAN ('2025-01-01'),
+        PARTITION p2025 VALUES LESS THAN ('2026-01-01'),
+        PARTITION p2026 VALUES LESS THAN ('2027-01-01'),
+        PARTITION p_future VALUES LESS THAN (MAXVALUE)
+    );
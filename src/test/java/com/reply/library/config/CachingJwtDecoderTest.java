@@ -0,0 +1,82 @@
+package com.reply.library.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CachingJwtDecoderTest {
+
+    @Mock
+    private JwtDecoder delegate;
+
+    private CachingJwtDecoder decoder;
+
+    @BeforeEach
+    void setUp() {
+        decoder = new CachingJwtDecoder(delegate, 100);
+    }
+
+    @Test
+    void decode_ReusesVerifiedToken() {
+        // Given
+        Jwt jwt = jwt("token-a", Instant.now().plusSeconds(3600));
+        when(delegate.decode("token-a")).thenReturn(jwt);
+
+        // When
+        Jwt first = decoder.decode("token-a");
+        Jwt second = decoder.decode("token-a");
+
+        // Then
+        assertSame(jwt, first);
+        assertSame(jwt, second);
+        verify(delegate, times(1)).decode("token-a");
+        assertEquals(1, decoder.getCache().stats().hitCount());
+    }
+
+    @Test
+    void decode_DoesNotCacheRejectedTokens() {
+        // Given
+        when(delegate.decode("bad")).thenThrow(new BadJwtException("Invalid signature"));
+
+        // When & Then
+        assertThrows(BadJwtException.class, () -> decoder.decode("bad"));
+        assertThrows(BadJwtException.class, () -> decoder.decode("bad"));
+        verify(delegate, times(2)).decode("bad");
+    }
+
+    @Test
+    void decode_DoesNotCacheTokensWithoutExpiry() {
+        // Given
+        Jwt jwt = jwt("forever", null);
+        when(delegate.decode("forever")).thenReturn(jwt);
+
+        // When
+        decoder.decode("forever");
+        decoder.decode("forever");
+
+        // Then
+        verify(delegate, times(2)).decode("forever");
+    }
+
+    private Jwt jwt(String token, Instant expiresAt) {
+        Jwt.Builder builder = Jwt.withTokenValue(token)
+                .header("alg", "HS256")
+                .subject("user")
+                .issuedAt(Instant.now().minusSeconds(1));
+        if (expiresAt != null) {
+            builder.expiresAt(expiresAt);
+        }
+        return builder.build();
+    }
+}
\ No newline at end of file
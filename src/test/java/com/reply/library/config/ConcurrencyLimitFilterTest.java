@@ -0,0 +1,47 @@
+package com.reply.library.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrencyLimitFilterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void doFilter_RejectsRequestsOverTheLimit() throws Exception {
+        // Given
+        ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(1, Duration.ZERO, meterRegistry);
+        MockHttpServletResponse nested = new MockHttpServletResponse();
+
+        // When: a second request arrives while the first still holds the only slot
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/books"), new MockHttpServletResponse(),
+                (request, response) -> filter.doFilter(new MockHttpServletRequest("GET", "/api/books"), nested, new MockFilterChain()));
+
+        // Then
+        assertEquals(503, nested.getStatus());
+        assertEquals("1", nested.getHeader("Retry-After"));
+        assertEquals(1, meterRegistry.counter("library.requests.rejected", "reason", "concurrency").count());
+    }
+
+    @Test
+    void doFilter_ReleasesSlotAfterRequest() throws Exception {
+        // Given
+        ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(1, Duration.ZERO, meterRegistry);
+        MockHttpServletResponse second = new MockHttpServletResponse();
+
+        // When
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/books"), new MockHttpServletResponse(), new MockFilterChain());
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/books"), second, new MockFilterChain());
+
+        // Then
+        assertEquals(200, second.getStatus());
+        assertEquals(0, meterRegistry.get("library.requests.in_flight").gauge().value());
+    }
+}
\ No newline at end of file
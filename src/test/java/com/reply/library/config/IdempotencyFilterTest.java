@@ -0,0 +1,201 @@
+package com.reply.library.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdempotencyFilterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final IdempotencyStore store = new IdempotencyStore(null, 100, Duration.ofHours(1), false);
+
+    private final IdempotencyFilter filter = new IdempotencyFilter(store, Duration.ofSeconds(5), meterRegistry, 64);
+
+    private final AtomicInteger executions = new AtomicInteger();
+
+    private final FilterChain createBook = (request, response) -> {
+        int run = executions.incrementAndGet();
+        request.getInputStream().readAllBytes();
+        ((HttpServletResponse) response).setStatus(201);
+        ((HttpServletResponse) response).setHeader("Location", "/api/books/" + run);
+        ((HttpServletResponse) response).setHeader("ETag", "\"0\"");
+        response.setContentType("application/json");
+        response.getWriter().write("{\"id\":" + run + "}");
+    };
+
+    @Test
+    void doFilter_RetryReplaysFirstResponse() throws Exception {
+        // Given
+        MockHttpServletResponse first = new MockHttpServletResponse();
+        filter.doFilter(post("key-1", "{\"title\":\"Dune\"}"), first, createBook);
+
+        // When
+        MockHttpServletResponse retry = new MockHttpServletResponse();
+        filter.doFilter(post("key-1", "{\"title\":\"Dune\"}"), retry, createBook);
+
+        // Then
+        assertEquals(1, executions.get());
+        assertEquals(201, retry.getStatus());
+        assertEquals(first.getContentAsString(), retry.getContentAsString());
+        assertEquals("/api/books/1", retry.getHeader("Location"));
+        assertEquals("\"0\"", retry.getHeader("ETag"));
+        assertEquals("true", retry.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+    }
+
+    @Test
+    void doFilter_BufferedBodyNotifiesReadListener() throws Exception {
+        // Given
+        List<String> events = new ArrayList<>();
+        FilterChain nonBlocking = (request, response) -> {
+            ServletInputStream in = request.getInputStream();
+            in.setReadListener(new ReadListener() {
+                @Override
+                public void onDataAvailable() throws IOException {
+                    events.add(new String(in.readAllBytes(), StandardCharsets.UTF_8));
+                }
+
+                @Override
+                public void onAllDataRead() {
+                    events.add("done");
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                    events.add("error");
+                }
+            });
+            ((HttpServletResponse) response).setStatus(201);
+        };
+
+        // When
+        filter.doFilter(post("key-1", "{\"title\":\"Dune\"}"), new MockHttpServletResponse(), nonBlocking);
+
+        // Then
+        assertEquals(List.of("{\"title\":\"Dune\"}", "done"), events);
+    }
+
+    @Test
+    void doFilter_KeyReusedForDifferentBody() throws Exception {
+        // Given
+        filter.doFilter(post("key-1", "{\"title\":\"Dune\"}"), new MockHttpServletResponse(), createBook);
+
+        // When
+        MockHttpServletResponse reused = new MockHttpServletResponse();
+        filter.doFilter(post("key-1", "{\"title\":\"Emma\"}"), reused, createBook);
+
+        // Then
+        assertEquals(422, reused.getStatus());
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void doFilter_BodyOverLimit_Rejected() throws Exception {
+        // When
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(post("key-1", "{\"title\":\"" + "x".repeat(64) + "\"}"), response, createBook);
+
+        // Then
+        assertEquals(413, response.getStatus());
+        assertEquals(0, executions.get());
+    }
+
+    @Test
+    void doFilter_WithoutKey_AlwaysExecutes() throws Exception {
+        // When
+        filter.doFilter(post(null, "{}"), new MockHttpServletResponse(), createBook);
+        filter.doFilter(post(null, "{}"), new MockHttpServletResponse(), createBook);
+
+        // Then
+        assertEquals(2, executions.get());
+    }
+
+    @Test
+    void doFilter_ConcurrentDuplicateWaitsForFirst() throws Exception {
+        // Given: the first request is held inside the handler
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        FilterChain slowCreate = (request, response) -> {
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            createBook.doFilter(request, response);
+        };
+        MockHttpServletResponse first = new MockHttpServletResponse();
+        CompletableFuture<Void> firstDone = CompletableFuture.runAsync(() -> {
+            try {
+                filter.doFilter(post("key-1", "{}"), first, slowCreate);
+            } catch (Exception ex) {
+                throw new IllegalStateException(ex);
+            }
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        // When
+        MockHttpServletResponse duplicate = new MockHttpServletResponse();
+        CompletableFuture<Void> duplicateDone = CompletableFuture.runAsync(() -> {
+            try {
+                filter.doFilter(post("key-1", "{}"), duplicate, slowCreate);
+            } catch (Exception ex) {
+                throw new IllegalStateException(ex);
+            }
+        });
+        release.countDown();
+        firstDone.get(5, TimeUnit.SECONDS);
+        duplicateDone.get(5, TimeUnit.SECONDS);
+
+        // Then
+        assertEquals(1, executions.get());
+        assertEquals(first.getContentAsString(), duplicate.getContentAsString());
+        assertEquals(201, duplicate.getStatus());
+    }
+
+    @Test
+    void doFilter_ServerErrorIsNotStored() throws Exception {
+        // Given
+        FilterChain failing = (request, response) -> {
+            executions.incrementAndGet();
+            ((HttpServletResponse) response).setStatus(500);
+        };
+        filter.doFilter(post("key-1", "{}"), new MockHttpServletResponse(), failing);
+
+        // When
+        MockHttpServletResponse retry = new MockHttpServletResponse();
+        filter.doFilter(post("key-1", "{}"), retry, createBook);
+
+        // Then
+        assertEquals(2, executions.get());
+        assertEquals(201, retry.getStatus());
+        assertNull(retry.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+    }
+
+    private MockHttpServletRequest post(String key, String body) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/books");
+        request.setContentType("application/json");
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        if (key != null) {
+            request.addHeader(IdempotencyFilter.HEADER, key);
+        }
+        return request;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,92 @@
+package com.reply.library.config;
+
+import com.reply.library.util.RateLimiter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimitFilterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    // one request per caller per minute for each kind
+    private final RateLimitFilter filter = new RateLimitFilter(
+            new RateLimiter(1.0 / 60, 1, 100), new RateLimiter(1.0 / 60, 1, 100), meterRegistry);
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void doFilter_OverTheLimit_Returns429WithRetryAfter() throws Exception {
+        // Given
+        signIn("alice");
+        perform("GET", "/api/books");
+
+        // When
+        MockHttpServletResponse rejected = perform("GET", "/api/books");
+
+        // Then
+        assertEquals(429, rejected.getStatus());
+        assertEquals("60", rejected.getHeader("Retry-After"));
+        assertEquals(1, meterRegistry.counter("library.requests.rejected", "reason", "read_rate").count());
+    }
+
+    @Test
+    void doFilter_ReadsAndWritesHaveSeparateBuckets() throws Exception {
+        // Given
+        signIn("alice");
+        perform("GET", "/api/books");
+
+        // When
+        MockHttpServletResponse write = perform("POST", "/api/borrow/1/member/1");
+
+        // Then
+        assertEquals(200, write.getStatus());
+    }
+
+    @Test
+    void doFilter_CallersHaveSeparateBuckets() throws Exception {
+        // Given
+        signIn("alice");
+        perform("GET", "/api/books");
+
+        // When
+        signIn("bob");
+        MockHttpServletResponse other = perform("GET", "/api/books");
+
+        // Then
+        assertEquals(200, other.getStatus());
+    }
+
+    @Test
+    void doFilter_IgnoresPathsOutsideTheApi() throws Exception {
+        // Given
+        perform("GET", "/actuator/health");
+
+        // When
+        MockHttpServletResponse second = perform("GET", "/actuator/health");
+
+        // Then
+        assertEquals(200, second.getStatus());
+    }
+
+    private void signIn(String name) {
+        TestingAuthenticationToken authentication = new TestingAuthenticationToken(name, null, "ROLE_USER");
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+    }
+
+    private MockHttpServletResponse perform(String method, String uri) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest(method, uri), response, new MockFilterChain());
+        return response;
+    }
+}
\ No newline at end of file
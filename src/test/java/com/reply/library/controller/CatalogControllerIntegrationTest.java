@@ -0,0 +1,100 @@
+package com.reply.library.controller;
+
+import com.reply.library.dto.BookDTO;
+import com.reply.library.dto.MemberDTO;
+import com.reply.library.service.BookService;
+import com.reply.library.service.MemberService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Not transactional: the reads run on the catalog executor, outside the test thread's
+ * transaction, so the fixtures have to be committed.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("h2")
+class CatalogControllerIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private MemberService memberService;
+
+    @Test
+    @WithMockUser(username = "user", password = "password")
+    void getBookById_MatchesBlockingEndpoint() throws Exception {
+        BookDTO book = bookService.createBook(new BookDTO("Catalog Book", "Catalog Author", "5550001112"));
+
+        MvcResult result = mockMvc.perform(get("/api/catalog/books/{id}", book.getId()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(book.getId()))
+                .andExpect(jsonPath("$.title").value("Catalog Book"))
+                .andExpect(jsonPath("$.borrowed").value(false));
+
+        bookService.deleteBook(book.getId());
+    }
+
+    @Test
+    @WithMockUser(username = "user", password = "password")
+    void asyncTimeouts_CatalogShortStreamingLong() throws Exception {
+        MvcResult catalog = mockMvc.perform(get("/api/catalog/members/{id}", 999L))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        MvcResult export = mockMvc.perform(get("/api/books/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        assertEquals(10_000L, catalog.getRequest().getAsyncContext().getTimeout());
+        assertEquals(Duration.ofHours(2).toMillis(), export.getRequest().getAsyncContext().getTimeout());
+        mockMvc.perform(asyncDispatch(catalog)).andExpect(status().isNotFound());
+    }
+
+    @Test
+    @WithMockUser(username = "user", password = "password")
+    void getMemberById_NotFound() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/catalog/members/{id}", 999L))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.message").value("Member not found with id: 999"));
+    }
+
+    @Test
+    @WithMockUser(username = "user", password = "password")
+    void getMemberById_Success() throws Exception {
+        MemberDTO member = memberService.createMember(new MemberDTO("Catalog Reader", "catalog.reader@example.com"));
+
+        MvcResult result = mockMvc.perform(get("/api/catalog/members/{id}", member.getId()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.email").value("catalog.reader@example.com"));
+
+        memberService.deleteMember(member.getId());
+    }
+}
\ No newline at end of file
@@ -1,19 +1,30 @@
 package com.reply.library.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
 import com.reply.library.dto.BookDTO;
 import com.reply.library.dto.MemberDTO;
 import com.reply.library.service.BookService;
 import com.reply.library.service.MemberService;
+import com.reply.library.service.OutboxRelay;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.transaction.annotation.Transactional;
 
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -32,6 +43,12 @@ class LibraryControllerIntegrationTest {
     @Autowired
     private MemberService memberService;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private OutboxRelay outboxRelay;
+
     private BookDTO testBook;
     private MemberDTO testMember;
     private Long bookId;
@@ -58,6 +75,20 @@ class LibraryControllerIntegrationTest {
                 .andExpect(content().string("Book borrowed successfully"));
     }
 
+    @Test
+    @WithMockUser(username = "user", password = "password")
+    void borrowBook_RetriedWithIdempotencyKey_ReplaysSuccess() throws Exception {
+        mockMvc.perform(post("/api/borrow/{bookId}/member/{memberId}", bookId, memberId)
+                .header("Idempotency-Key", "kiosk-7-borrow-1"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(post("/api/borrow/{bookId}/member/{memberId}", bookId, memberId)
+                .header("Idempotency-Key", "kiosk-7-borrow-1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Idempotent-Replayed", "true"))
+                .andExpect(content().string("Book borrowed successfully"));
+    }
+
     @Test
     @WithMockUser(username = "user", password = "password")
     void borrowBook_MemberNotFound() throws Exception {
@@ -91,6 +122,91 @@ class LibraryControllerIntegrationTest {
                 .andExpect(jsonPath("$.message").value("Book is already borrowed"));
     }
 
+    @Test
+    @WithMockUser(username = "user", password = "password")
+    void borrowBook_AlreadyBorrowed_CountsConflict() throws Exception {
+        mockMvc.perform(post("/api/borrow/{bookId}/member/{memberId}", bookId, memberId))
+                .andExpect(status().isOk());
+        double before = conflictCount();
+
+        mockMvc.perform(post("/api/borrow/{bookId}/member/{memberId}", bookId, memberId))
+                .andExpect(status().isConflict());
+
+        assertEquals(before + 1, conflictCount());
+    }
+
+    @Test
+    @WithMockUser(username = "user", password = "password")
+    void borrowAndReturn_TracksLoan() throws Exception {
+        mockMvc.perform(post("/api/borrow/{bookId}/member/{memberId}", bookId, memberId))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/members/{memberId}/loans", memberId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].bookId").value(bookId))
+                .andExpect(jsonPath("$[0].dueAt").exists());
+
+        mockMvc.perform(post("/api/return/{bookId}", bookId))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/members/{memberId}/loans", memberId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(0));
+    }
+
+    @Test
+    @WithMockUser(username = "user", password = "password")
+    void borrowAndReturn_AppearInChangeStream() throws Exception {
+        mockMvc.perform(post("/api/borrow/{bookId}/member/{memberId}", bookId, memberId))
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/api/return/{bookId}", bookId))
+                .andExpect(status().isOk());
+
+        outboxRelay.relay();
+
+        mockMvc.perform(get("/api/events").param("after", "").param("size", "1000"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.next").exists())
+                .andExpect(jsonPath("$.content[?(@.aggregateType == 'book' && @.aggregateId == " + bookId + ")].type")
+                        .value(contains("CREATED", "BORROWED", "RETURNED")))
+                .andExpect(jsonPath("$.content[?(@.aggregateType == 'book' && @.aggregateId == " + bookId + ")].payload.title")
+                        .value(contains("Test Book")));
+    }
+
+    @Test
+    @WithMockUser(username = "user", password = "password")
+    void returnBook_HandsOffToHolder() throws Exception {
+        Long holderId = memberService.createMember(new MemberDTO("Jane Roe", "jane@example.com")).getId();
+
+        mockMvc.perform(post("/api/books/{bookId}/holds", bookId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"memberId\": " + holderId + "}"))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.message").value("Book is available, borrow it instead"));
+
+        mockMvc.perform(post("/api/borrow/{bookId}/member/{memberId}", bookId, memberId))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(post("/api/books/{bookId}/holds", bookId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"memberId\": " + holderId + "}"))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.status").value("WAITING"))
+                .andExpect(jsonPath("$.position").value(1));
+
+        mockMvc.perform(post("/api/return/{bookId}", bookId))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/members/{memberId}/loans", holderId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].bookId").value(bookId));
+
+        mockMvc.perform(post("/api/borrow/{bookId}/member/{memberId}", bookId, memberId))
+                .andExpect(status().isConflict());
+    }
+
     @Test
     @WithMockUser(username = "user", password = "password")
     void returnBook_Success() throws Exception {
@@ -133,4 +249,191 @@ class LibraryControllerIntegrationTest {
         mockMvc.perform(post("/api/return/{bookId}", bookId))
                 .andExpect(status().isUnauthorized());
     }
+
+    @Test
+    @WithMockUser(username = "user", password = "password")
+    void borrowBooks_Batch() throws Exception {
+        Long nonExistentBookId = 999L;
+        String body = "{\"memberId\": " + memberId + ", \"bookIds\": [" + bookId + ", " + nonExistentBookId + "]}";
+
+        mockMvc.perform(post("/api/borrow/batch").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.succeeded").value(1))
+                .andExpect(jsonPath("$.results[0].status").value("SUCCESS"))
+                .andExpect(jsonPath("$.results[1].status").value("NOT_FOUND"));
+
+        mockMvc.perform(post("/api/return/batch").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"bookIds\": [" + bookId + "]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.results[0].status").value("SUCCESS"));
+    }
+
+    @Test
+    @WithMockUser(username = "user", password = "password")
+    void getAllBooks_WithFields_WritesOnlyThoseFields() throws Exception {
+        mockMvc.perform(get("/api/books").param("size", "100").param("fields", "id,borrowed"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[?(@.id == " + bookId + ")].borrowed").value(contains(false)))
+                .andExpect(jsonPath("$.content[0].title").doesNotExist())
+                .andExpect(jsonPath("$.totalElements").isNumber())
+                .andExpect(jsonPath("$.number").value(0))
+                .andExpect(jsonPath("$.first").value(true))
+                .andExpect(jsonPath("$.last").isBoolean())
+                .andExpect(jsonPath("$.numberOfElements").isNumber())
+                .andExpect(jsonPath("$.pageable").doesNotExist());
+    }
+
+    @Test
+    @WithMockUser(username = "user", password = "password")
+    void getAllBooks_WithFields_PagesInIdOrder() throws Exception {
+        bookService.createBook(new BookDTO("Second Book", "Test Author", "987654321"));
+
+        byte[] body = mockMvc.perform(get("/api/books").param("size", "100").param("fields", "id"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray();
+        long previous = 0;
+        for (JsonNode book : new ObjectMapper().readTree(body).get("content")) {
+            assertTrue(book.get("id").asLong() > previous);
+            previous = book.get("id").asLong();
+        }
+        assertTrue(previous > bookId);
+    }
+
+    @Test
+    @WithMockUser(username = "user", password = "password")
+    void getBooksAfter_WithFields_WritesOnlyThoseFields() throws Exception {
+        mockMvc.perform(get("/api/books").param("after", "").param("size", "1000").param("fields", "title"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].title").isString())
+                .andExpect(jsonPath("$.content[0].id").doesNotExist());
+    }
+
+    @Test
+    @WithMockUser(username = "user", password = "password")
+    void getBookById_UnknownField_BadRequest() throws Exception {
+        mockMvc.perform(get("/api/books/{id}", bookId).param("fields", "id,publisher"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser(username = "user", password = "password")
+    void getBookById_AcceptCbor() throws Exception {
+        byte[] body = mockMvc.perform(get("/api/books/{id}", bookId).param("fields", "title")
+                        .accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        JsonNode book = new CBORMapper().readTree(body);
+        assertEquals("Test Book", book.get("title").asText());
+        assertEquals(1, book.size());
+    }
+
+    @Test
+    @WithMockUser(username = "user", password = "password")
+    void lookupBooks_ResolvesIdsAndIsbns() throws Exception {
+        String body = "{\"ids\": [999, " + bookId + "], \"isbns\": [\"123456789\", \"000\"]}";
+
+        mockMvc.perform(post("/api/books/lookup").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].id").value(bookId))
+                .andExpect(jsonPath("$.content.length()").value(1))
+                .andExpect(jsonPath("$.missingIds").value(contains(999)))
+                .andExpect(jsonPath("$.missingIsbns").value(contains("000")));
+    }
+
+    @Test
+    @WithMockUser(username = "user", password = "password")
+    void lookupMembers_WithIsbns_BadRequest() throws Exception {
+        mockMvc.perform(post("/api/members/lookup").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"ids\": [" + memberId + "], \"isbns\": [\"123456789\"]}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser(username = "user", password = "password")
+    void getBookById_IfNoneMatch_NotModifiedUntilBorrowed() throws Exception {
+        String etag = mockMvc.perform(get("/api/books/{id}", bookId))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("Last-Modified"))
+                .andExpect(jsonPath("$.version").value(0))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/api/books/{id}", bookId).header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", etag))
+                .andExpect(content().string(""));
+
+        mockMvc.perform(post("/api/borrow/{bookId}/member/{memberId}", bookId, memberId))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/books/{id}", bookId).header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", not(etag)))
+                .andExpect(jsonPath("$.borrowed").value(true));
+    }
+
+    @Test
+    @WithMockUser(username = "user", password = "password")
+    void getBookById_ETagDependsOnFields() throws Exception {
+        String etag = mockMvc.perform(get("/api/books/{id}", bookId))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/api/books/{id}", bookId).param("fields", "id").header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.title").doesNotExist());
+    }
+
+    @Test
+    @WithMockUser(username = "user", password = "password")
+    void getAllMembers_IfNoneMatch_NotModifiedUntilUpdated() throws Exception {
+        String etag = mockMvc.perform(get("/api/members").param("size", "100"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/api/members").param("size", "100").header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+
+        mockMvc.perform(put("/api/members/{id}", memberId).contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\": \"John Doe\", \"email\": \"john.doe@example.com\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.version").value(1));
+
+        mockMvc.perform(get("/api/members").param("size", "100").header("If-None-Match", etag))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @WithMockUser(username = "user", password = "password")
+    void importBooks_UnsupportedOrMissingContentType_UnsupportedMediaType() throws Exception {
+        mockMvc.perform(post("/api/books/import").contentType(MediaType.TEXT_PLAIN).content("title"))
+                .andExpect(status().isUnsupportedMediaType())
+                .andExpect(jsonPath("$.status").value(415));
+
+        mockMvc.perform(post("/api/books/import").content("title"))
+                .andExpect(status().isUnsupportedMediaType());
+    }
+
+    @Test
+    @WithMockUser(username = "user", password = "password")
+    void importBooks_CsvHeaderMissingColumn_BadRequest() throws Exception {
+        mockMvc.perform(post("/api/books/import").contentType("text/csv").content("title,author\nDune,Frank Herbert\n"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.status").value(400));
+    }
+
+    @Test
+    @WithMockUser(username = "user", password = "password")
+    void streamChanges_MalformedLastEventId_BadRequest() throws Exception {
+        mockMvc.perform(get("/api/books/changes").header("Last-Event-ID", "abc"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.status").value(400));
+    }
+
+    private double conflictCount() {
+        Counter counter = meterRegistry.find("library.errors")
+                .tags("status", "409", "uri", "/api/borrow/{bookId}/member/{memberId}")
+                .counter();
+        return counter != null ? counter.count() : 0;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,142 @@
+package com.reply.library.service;
+
+import com.reply.library.dto.BookChangeDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BookChangeFeedTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    // drain tasks are run by hand, so tests control when a subscriber catches up
+    private final List<Runnable> tasks = new ArrayList<>();
+
+    @Test
+    void publish_OnlySendsWatchedBooks() {
+        // Given
+        BookChangeFeed feed = new BookChangeFeed(tasks::add, meterRegistry, 100, 100);
+        RecordingEmitter emitter = new RecordingEmitter();
+        feed.register(Set.of(1L), null, emitter);
+
+        // When
+        feed.publish(1L, BookChangeDTO.Type.BORROWED);
+        feed.publish(2L, BookChangeDTO.Type.BORROWED);
+        runTasks();
+
+        // Then
+        assertEquals(List.of(1L), emitter.bookIds());
+        assertEquals(Boolean.TRUE, emitter.changes.get(0).getBorrowed());
+    }
+
+    @Test
+    void publish_SlowSubscriberGetsLatestChangePerBook() {
+        // Given
+        BookChangeFeed feed = new BookChangeFeed(tasks::add, meterRegistry, 100, 100);
+        RecordingEmitter emitter = new RecordingEmitter();
+        feed.register(null, null, emitter);
+
+        // When: three changes arrive before the subscriber is drained
+        feed.publish(1L, BookChangeDTO.Type.BORROWED);
+        feed.publish(2L, BookChangeDTO.Type.BORROWED);
+        feed.publish(1L, BookChangeDTO.Type.RETURNED);
+        assertEquals(1, tasks.size());
+        runTasks();
+
+        // Then
+        assertEquals(List.of(2L, 1L), emitter.bookIds());
+        assertEquals(BookChangeDTO.Type.RETURNED, emitter.changes.get(1).getType());
+        assertEquals(3L, emitter.changes.get(1).getSequence());
+    }
+
+    @Test
+    void publish_BufferOverflow_DropsOldestAndResets() {
+        // Given
+        BookChangeFeed feed = new BookChangeFeed(tasks::add, meterRegistry, 100, 2);
+        RecordingEmitter emitter = new RecordingEmitter();
+        feed.register(null, null, emitter);
+
+        // When
+        feed.publish(1L, BookChangeDTO.Type.BORROWED);
+        feed.publish(2L, BookChangeDTO.Type.BORROWED);
+        feed.publish(3L, BookChangeDTO.Type.BORROWED);
+        runTasks();
+
+        // Then
+        assertTrue(emitter.reset);
+        assertEquals(List.of(2L, 3L), emitter.bookIds());
+        assertEquals(1, meterRegistry.counter("library.changes.dropped").count());
+    }
+
+    @Test
+    void register_ReplaysChangesAfterLastEventId() {
+        // Given
+        BookChangeFeed feed = new BookChangeFeed(tasks::add, meterRegistry, 100, 100);
+        feed.publish(1L, BookChangeDTO.Type.BORROWED);
+        feed.publish(2L, BookChangeDTO.Type.BORROWED);
+        feed.publish(3L, BookChangeDTO.Type.BORROWED);
+        RecordingEmitter emitter = new RecordingEmitter();
+
+        // When
+        feed.register(null, 1L, emitter);
+        runTasks();
+
+        // Then
+        assertFalse(emitter.reset);
+        assertEquals(List.of(2L, 3L), emitter.bookIds());
+        assertEquals(1, feed.subscriberCount());
+    }
+
+    @Test
+    void register_HistoryNoLongerCoversLastEventId_SendsReset() {
+        // Given
+        BookChangeFeed feed = new BookChangeFeed(tasks::add, meterRegistry, 2, 100);
+        feed.publish(1L, BookChangeDTO.Type.BORROWED);
+        feed.publish(2L, BookChangeDTO.Type.BORROWED);
+        feed.publish(3L, BookChangeDTO.Type.BORROWED);
+        RecordingEmitter emitter = new RecordingEmitter();
+
+        // When
+        feed.register(null, 0L, emitter);
+        runTasks();
+
+        // Then
+        assertTrue(emitter.reset);
+        assertEquals(List.of(2L, 3L), emitter.bookIds());
+    }
+
+    private void runTasks() {
+        while (!tasks.isEmpty()) {
+            tasks.remove(0).run();
+        }
+    }
+
+    private static class RecordingEmitter extends SseEmitter {
+
+        private final List<BookChangeDTO> changes = new ArrayList<>();
+
+        private boolean reset;
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            for (ResponseBodyEmitter.DataWithMediaType part : builder.build()) {
+                if (part.getData() instanceof BookChangeDTO change) {
+                    changes.add(change);
+                } else if (part.getData().toString().contains("event:" + BookChangeFeed.RESET_EVENT)) {
+                    reset = true;
+                }
+            }
+        }
+
+        private List<Long> bookIds() {
+            return changes.stream().map(BookChangeDTO::getBookId).toList();
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,149 @@
+package com.reply.library.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.reply.library.dto.BookDTO;
+import com.reply.library.dto.ImportResultDTO;
+import com.reply.library.repository.BookRepository;
+import com.reply.library.repository.BookSummary;
+import com.reply.library.util.BookImportReader;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BookImportServiceTest {
+
+    @Mock
+    private BookRepository bookRepository;
+
+    @Mock
+    private BookAvailabilityIndex availabilityIndex;
+
+    @Mock
+    private BookSearchIndex searchIndex;
+
+    @Mock
+    private OutboxService outboxService;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Spy
+    private Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
+    @InjectMocks
+    private BookImportService bookImportService;
+
+    @BeforeEach
+    void setUp() {
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    @Test
+    void importBooks_Csv_SkipsDuplicatesAndInvalidRows() throws Exception {
+        // Given
+        String csv = "isbn,title,author\n"
+                + "1234567890,\"Dune, Part One\",Frank Herbert\n"
+                + "1234567890,Dune,Frank Herbert\n"
+                + "9780743273565,The Great Gatsby,F. Scott Fitzgerald\n"
+                + "not-an-isbn,Broken,Nobody\n";
+        when(bookRepository.findExistingIsbns(anyCollection())).thenReturn(List.of("9780743273565"));
+        List<String> insertedTitles = captureInserts();
+
+        // When
+        ImportResultDTO result = bookImportService.importBooks(reader(BookImportReader.TEXT_CSV, csv), progress -> { });
+
+        // Then
+        assertTrue(result.isDone());
+        assertEquals(4, result.getProcessed());
+        assertEquals(1, result.getInserted());
+        assertEquals(2, result.getDuplicates());
+        assertEquals(1, result.getRejected());
+        assertEquals(5, result.getErrors().get(0).getLine());
+        assertEquals(List.of("Dune, Part One"), insertedTitles);
+    }
+
+    @Test
+    void importBooks_Ndjson_ReportsMalformedLines() throws Exception {
+        // Given
+        String ndjson = "{\"title\":\"Emma\",\"author\":\"Jane Austen\",\"isbn\":\"1111111111\"}\n"
+                + "{\"title\": oops}\n";
+        when(bookRepository.findExistingIsbns(anyCollection())).thenReturn(List.of());
+        List<String> insertedTitles = captureInserts();
+        List<ImportResultDTO> progress = new ArrayList<>();
+
+        // When
+        ImportResultDTO result = bookImportService.importBooks(reader(MediaType.APPLICATION_NDJSON, ndjson), progress::add);
+
+        // Then
+        assertEquals(1, result.getInserted());
+        assertEquals(1, result.getRejected());
+        assertEquals(List.of("Emma"), insertedTitles);
+        assertEquals(1, progress.size());
+        assertTrue(progress.get(0).isDone());
+    }
+
+    @Test
+    void importBooks_RegistersInsertedBooksWithIndexes() throws Exception {
+        // Given
+        String ndjson = "{\"title\":\"Emma\",\"author\":\"Jane Austen\",\"isbn\":\"1111111111\"}\n";
+        BookSummary summary = mock(BookSummary.class);
+        when(summary.getId()).thenReturn(7L);
+        when(summary.getTitle()).thenReturn("Emma");
+        when(summary.getAuthor()).thenReturn("Jane Austen");
+        when(summary.getIsbn()).thenReturn("1111111111");
+        when(bookRepository.findExistingIsbns(anyCollection())).thenReturn(List.of());
+        when(bookRepository.findSummariesByIsbnIn(List.of("1111111111"))).thenReturn(List.of(summary));
+        captureInserts();
+
+        // When
+        bookImportService.importBooks(reader(MediaType.APPLICATION_NDJSON, ndjson), progress -> { });
+
+        // Then
+        verify(availabilityIndex).add(7L);
+        verify(searchIndex).index(7L, "Emma", "Jane Austen", "1111111111");
+        verify(outboxService).record(eq(OutboxService.BOOK), eq(7L), eq("CREATED"), any(BookDTO.class));
+    }
+
+    private BookImportReader reader(MediaType type, String content) throws IOException {
+        return BookImportReader.open(type, new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)), new ObjectMapper());
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<String> captureInserts() {
+        List<String> titles = new ArrayList<>();
+        when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenAnswer(invocation -> {
+                    Collection<BookDTO> books = invocation.getArgument(1);
+                    books.forEach(book -> titles.add(book.getTitle()));
+                    return new int[0][];
+                });
+        return titles;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,81 @@
+package com.reply.library.service;
+
+import com.reply.library.repository.BookRepository;
+import com.reply.library.repository.BookSummary;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BookSearchIndexTest {
+
+    @Mock
+    private BookRepository bookRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private BookSearchIndex searchIndex;
+
+    @Test
+    void load_KeepsChangesCommittedWhileLoading() {
+        // Given: the snapshot still has the old title of book 1 and the deleted book 2,
+        // and both commits land while it is being read
+        when(bookRepository.streamAllSummaries()).thenReturn(Stream.of(
+                        summary(1L, "Old Title"), summary(2L, "Deleted Book"), summary(3L, "Dune"))
+                .peek(book -> {
+                    if (book.getId() == 1L) {
+                        searchIndex.index(1L, "New Title", "Author", "111");
+                        searchIndex.remove(2L);
+                    }
+                }));
+
+        // When
+        searchIndex.load();
+
+        // Then
+        assertEquals("New Title", searchIndex.get(1L).getTitle());
+        assertNull(searchIndex.get(2L));
+        assertEquals("Dune", searchIndex.get(3L).getTitle());
+        assertTrue(searchIndex.search("old", 10, id -> true).isEmpty());
+    }
+
+    @Test
+    void remove_AfterLoad_IsNotRemembered() {
+        // Given
+        when(bookRepository.streamAllSummaries()).thenReturn(Stream.empty());
+        searchIndex.load();
+        searchIndex.remove(1L);
+
+        // When
+        searchIndex.index(1L, "Dune", "Frank Herbert", "111");
+
+        // Then
+        assertEquals(1, searchIndex.search("dune", 10, id -> true).size());
+    }
+
+    private BookSummary summary(Long id, String title) {
+        return new BookSummary() {
+            @Override
+            public Long getId() { return id; }
+
+            @Override
+            public String getTitle() { return title; }
+
+            @Override
+            public String getAuthor() { return "Author"; }
+
+            @Override
+            public String getIsbn() { return String.valueOf(id); }
+        };
+    }
+}
\ No newline at end of file
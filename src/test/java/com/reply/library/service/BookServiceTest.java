@@ -1,22 +1,40 @@
 package com.reply.library.service;
 
+import com.reply.library.config.ReadYourWritesTracker;
+import com.reply.library.dto.BatchResultDTO;
+import com.reply.library.dto.BookChangeDTO;
 import com.reply.library.dto.BookDTO;
+import com.reply.library.dto.CursorPageDTO;
+import com.reply.library.dto.LookupResultDTO;
 import com.reply.library.entity.Book;
 import com.reply.library.exception.ResourceNotFoundException;
+import com.reply.library.repository.BookAvailability;
 import com.reply.library.repository.BookRepository;
+import com.reply.library.util.CursorCodec;
+import com.reply.library.util.SingleFlight;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -29,6 +47,32 @@ class BookServiceTest {
     @Mock
     private BookRepository bookRepository;
 
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private CacheManager cacheManager;
+
+    @Mock
+    private BookChangeFeed changeFeed;
+
+    @Mock
+    private OutboxService outboxService;
+
+    @Mock
+    private ReadYourWritesTracker readYourWrites;
+
+    @Spy
+    private SingleFlight<Long, BookDTO> bookLookups = new SingleFlight<>("books", new SimpleMeterRegistry());
+
+    private final AtomicLong now = new AtomicLong();
+
+    @Spy
+    private BookAvailabilityIndex availabilityIndex = new BookAvailabilityIndex(now::get);
+
+    @Spy
+    private BookSearchIndex searchIndex = new BookSearchIndex();
+
     @InjectMocks
     private BookService bookService;
 
@@ -58,14 +102,16 @@ class BookServiceTest {
         assertEquals(testBookDTO.getAuthor(), result.getAuthor());
         assertEquals(testBookDTO.getIsbn(), result.getIsbn());
         verify(bookRepository).save(any(Book.class));
+        verify(outboxService).record(OutboxService.BOOK, 1L, "CREATED", result);
+        verify(readYourWrites).recordWrite();
     }
 
     @Test
     void getAllBooks_Success() {
         // Given
         Pageable pageable = PageRequest.of(0, 10);
-        Page<Book> bookPage = new PageImpl<>(Arrays.asList(testBook));
-        when(bookRepository.findAll(pageable)).thenReturn(bookPage);
+        Page<BookDTO> bookPage = new PageImpl<>(Arrays.asList(testBookDTO));
+        when(bookRepository.findAllDtos(pageable)).thenReturn(bookPage);
 
         // When
         Page<BookDTO> result = bookService.getAllBooks(pageable);
@@ -74,13 +120,61 @@ class BookServiceTest {
         assertNotNull(result);
         assertEquals(1, result.getTotalElements());
         assertEquals(testBook.getTitle(), result.getContent().get(0).getTitle());
-        verify(bookRepository).findAll(pageable);
+        verify(bookRepository).findAllDtos(pageable);
+    }
+
+    @Test
+    void getBooksAfter_ReturnsNextToken() {
+        // Given
+        BookDTO second = new BookDTO(2L, "Second", "Author", "1234567890", false, 0L, null);
+        when(bookRepository.findDtosAfter(0L, PageRequest.of(0, 2)))
+                .thenReturn(Arrays.asList(testBookDTO, second));
+
+        // When
+        CursorPageDTO<BookDTO> result = bookService.getBooksAfter(0L, 1, false);
+
+        // Then
+        assertEquals(1, result.getContent().size());
+        assertEquals(1L, CursorCodec.decode(result.getNext(), 1)[0]);
+        assertNull(result.getTotal());
+        verify(bookRepository, never()).count();
+    }
+
+    @Test
+    void getBooksAfter_LastPage() {
+        // Given
+        when(bookRepository.findDtosAfter(0L, PageRequest.of(0, 11)))
+                .thenReturn(Arrays.asList(testBookDTO));
+        when(bookRepository.count()).thenReturn(1L);
+
+        // When
+        CursorPageDTO<BookDTO> result = bookService.getBooksAfter(0L, 10, true);
+
+        // Then
+        assertEquals(1, result.getContent().size());
+        assertNull(result.getNext());
+        assertEquals(1L, result.getTotal());
+    }
+
+    @Test
+    void forEachBook_DetachesAfterConverting() {
+        // Given
+        when(bookRepository.streamAllByOrderByIdAsc()).thenReturn(Stream.of(testBook));
+        List<BookDTO> exported = new ArrayList<>();
+
+        // When
+        bookService.forEachBook(exported::add);
+
+        // Then
+        assertEquals(1, exported.size());
+        assertEquals(testBook.getIsbn(), exported.get(0).getIsbn());
+        verify(entityManager).detach(testBook);
     }
 
     @Test
     void getBookById_Success() {
         // Given
-        when(bookRepository.findById(1L)).thenReturn(Optional.of(testBook));
+        when(bookRepository.findDtoById(1L)).thenReturn(Optional.of(testBookDTO));
 
         // When
         BookDTO result = bookService.getBookById(1L);
@@ -88,19 +182,97 @@ class BookServiceTest {
         // Then
         assertNotNull(result);
         assertEquals(testBook.getTitle(), result.getTitle());
-        verify(bookRepository).findById(1L);
+        verify(bookRepository).findDtoById(1L);
+        verify(bookRepository, never()).findById(anyLong());
     }
 
     @Test
     void getBookById_NotFound() {
         // Given
-        when(bookRepository.findById(1L)).thenReturn(Optional.empty());
+        when(bookRepository.findDtoById(1L)).thenReturn(Optional.empty());
 
         // When & Then
         assertThrows(ResourceNotFoundException.class, () -> {
             bookService.getBookById(1L);
         });
-        verify(bookRepository).findById(1L);
+        verify(bookRepository).findDtoById(1L);
+    }
+
+    @Test
+    void getBookById_CachesLoadedBook() {
+        // Given
+        ConcurrentMapCache cache = new ConcurrentMapCache("books");
+        when(cacheManager.getCache("books")).thenReturn(cache);
+        when(bookRepository.findDtoById(1L)).thenReturn(Optional.of(testBookDTO));
+
+        // When
+        bookService.getBookById(1L);
+        BookDTO second = bookService.getBookById(1L);
+
+        // Then
+        assertSame(testBookDTO, second);
+        verify(bookRepository, times(1)).findDtoById(1L);
+    }
+
+    @Test
+    void getBookById_UpdateCommitsWhileLoading_DoesNotCacheOldBook() {
+        // Given: the update commits after the lookup has read the old row
+        ConcurrentMapCache cache = new ConcurrentMapCache("books");
+        when(cacheManager.getCache("books")).thenReturn(cache);
+        when(bookRepository.findById(1L)).thenReturn(Optional.of(testBook));
+        when(bookRepository.save(any(Book.class))).thenReturn(testBook);
+        BookDTO oldBook = new BookDTO(1L, "Old Title", "Test Author", "123456789", false, 0L, null);
+        when(bookRepository.findDtoById(1L)).thenAnswer(invocation -> {
+            bookService.updateBook(1L, new BookDTO("New Title", "Test Author", "123456789"));
+            return Optional.of(oldBook);
+        }).thenReturn(Optional.of(testBookDTO));
+
+        // When
+        BookDTO during = bookService.getBookById(1L);
+        BookDTO after = bookService.getBookById(1L);
+
+        // Then: the overlapping load is served to its caller but not cached
+        assertSame(oldBook, during);
+        assertSame(testBookDTO, after);
+        assertSame(testBookDTO, cache.get(1L, BookDTO.class));
+        verify(bookRepository, times(2)).findDtoById(1L);
+    }
+
+    @Test
+    void lookupBooks_ReturnsRequestOrderOnceAndMissingKeys() {
+        // Given: book 2 is cached, books 1 and 3 are not
+        ConcurrentMapCache cache = new ConcurrentMapCache("books");
+        cache.put(2L, new BookDTO(2L, "Two", "Author", "222", false, 0L, null));
+        when(cacheManager.getCache("books")).thenReturn(cache);
+        when(bookRepository.findDtosByIdIn(List.of(3L, 1L, 9L))).thenReturn(List.of(
+                new BookDTO(1L, "One", "Author", "111", false, 0L, null),
+                new BookDTO(3L, "Three", "Author", "333", true, 0L, null)));
+        when(bookRepository.findDtosByIsbnIn(List.of("111", "999"))).thenReturn(List.of(
+                new BookDTO(1L, "One", "Author", "111", false, 0L, null)));
+
+        // When
+        LookupResultDTO<BookDTO> result = bookService.lookupBooks(
+                List.of(3L, 2L, 1L, 9L, 3L), List.of("111", "999"));
+
+        // Then
+        assertEquals(List.of(3L, 2L, 1L), result.getContent().stream().map(BookDTO::getId).toList());
+        assertEquals(List.of(9L), result.getMissingIds());
+        assertEquals(List.of("999"), result.getMissingIsbns());
+    }
+
+    @Test
+    void lookupBooks_ByIsbnOnly_LeavesMissingIdsOut() {
+        // Given
+        when(bookRepository.findDtosByIsbnIn(List.of("123456789"))).thenReturn(List.of(testBookDTO));
+
+        // When
+        LookupResultDTO<BookDTO> result = bookService.lookupBooks(null, List.of("123456789"));
+
+        // Then
+        assertEquals(List.of(testBookDTO), result.getContent());
+        assertNull(result.getMissingIds());
+        assertTrue(result.getMissingIsbns().isEmpty());
+        verify(bookRepository, never()).findDtosByIdIn(any());
     }
 
     @Test
@@ -163,15 +335,31 @@ class BookServiceTest {
         // Given
         testBook.setBorrowed(false);
         when(bookRepository.findById(1L)).thenReturn(Optional.of(testBook));
-        when(bookRepository.save(any(Book.class))).thenReturn(testBook);
+        when(bookRepository.markBorrowed(1L)).thenReturn(1);
 
         // When
         bookService.borrowBook(1L);
 
         // Then
-        assertTrue(testBook.isBorrowed());
+        assertEquals(Boolean.TRUE, availabilityIndex.isBorrowed(1L));
         verify(bookRepository).findById(1L);
-        verify(bookRepository).save(testBook);
+        verify(bookRepository).markBorrowed(1L);
+        verify(bookRepository, never()).save(any(Book.class));
+        verify(changeFeed).publish(1L, BookChangeDTO.Type.BORROWED);
+    }
+
+    @Test
+    void borrowBook_KnownAvailable_SkipsLookup() {
+        // Given
+        availabilityIndex.add(1L);
+        when(bookRepository.markBorrowed(1L)).thenReturn(1);
+
+        // When
+        bookService.borrowBook(1L);
+
+        // Then
+        verify(bookRepository, never()).findById(anyLong());
+        verify(bookRepository).markBorrowed(1L);
     }
 
     @Test
@@ -185,7 +373,52 @@ class BookServiceTest {
             bookService.borrowBook(1L);
         });
         verify(bookRepository).findById(1L);
-        verify(bookRepository, never()).save(any(Book.class));
+        verify(bookRepository, never()).markBorrowed(anyLong());
+    }
+
+    @Test
+    void borrowBook_KnownBorrowed_RejectedWithoutDatabase() {
+        // Given
+        availabilityIndex.add(1L);
+        availabilityIndex.claim(1L);
+
+        // When & Then
+        assertThrows(IllegalStateException.class, () -> {
+            bookService.borrowBook(1L);
+        });
+        verifyNoInteractions(bookRepository);
+    }
+
+    @Test
+    void borrowBook_KnownBorrowedPastTtl_RechecksDatabase() {
+        // Given: borrowed when last seen, then returned elsewhere
+        availabilityIndex.add(1L);
+        availabilityIndex.claim(1L);
+        now.addAndGet(TimeUnit.SECONDS.toNanos(6));
+        testBook.setBorrowed(false);
+        when(bookRepository.findById(1L)).thenReturn(Optional.of(testBook));
+        when(bookRepository.markBorrowed(1L)).thenReturn(1);
+
+        // When
+        bookService.borrowBook(1L);
+
+        // Then
+        verify(bookRepository).markBorrowed(1L);
+        assertEquals(Boolean.TRUE, availabilityIndex.isBorrowed(1L));
+    }
+
+    @Test
+    void borrowBook_LostRace() {
+        // Given
+        availabilityIndex.add(1L);
+        when(bookRepository.markBorrowed(1L)).thenReturn(0);
+        when(bookRepository.existsById(1L)).thenReturn(true);
+
+        // When & Then
+        assertThrows(IllegalStateException.class, () -> {
+            bookService.borrowBook(1L);
+        });
+        assertNull(availabilityIndex.isBorrowed(1L));
     }
 
     @Test
@@ -198,49 +431,191 @@ class BookServiceTest {
             bookService.borrowBook(1L);
         });
         verify(bookRepository).findById(1L);
-        verify(bookRepository, never()).save(any(Book.class));
+        verify(bookRepository, never()).markBorrowed(anyLong());
     }
 
     @Test
     void returnBook_Success() {
         // Given
-        testBook.setBorrowed(true);
-        when(bookRepository.findById(1L)).thenReturn(Optional.of(testBook));
-        when(bookRepository.save(any(Book.class))).thenReturn(testBook);
+        when(bookRepository.markReturned(1L)).thenReturn(1);
 
         // When
         bookService.returnBook(1L);
 
         // Then
-        assertFalse(testBook.isBorrowed());
-        verify(bookRepository).findById(1L);
-        verify(bookRepository).save(testBook);
+        assertEquals(Boolean.FALSE, availabilityIndex.isBorrowed(1L));
+        verify(bookRepository).markReturned(1L);
+        verify(bookRepository, never()).save(any(Book.class));
+        verify(changeFeed).publish(1L, BookChangeDTO.Type.RETURNED);
     }
 
     @Test
     void returnBook_NotCurrentlyBorrowed() {
         // Given
-        testBook.setBorrowed(false);
-        when(bookRepository.findById(1L)).thenReturn(Optional.of(testBook));
+        when(bookRepository.markReturned(1L)).thenReturn(0);
+        when(bookRepository.existsById(1L)).thenReturn(true);
 
         // When & Then
         assertThrows(IllegalStateException.class, () -> {
             bookService.returnBook(1L);
         });
-        verify(bookRepository).findById(1L);
+        verify(bookRepository).markReturned(1L);
         verify(bookRepository, never()).save(any(Book.class));
     }
 
     @Test
     void returnBook_NotFound() {
         // Given
-        when(bookRepository.findById(1L)).thenReturn(Optional.empty());
+        when(bookRepository.markReturned(1L)).thenReturn(0);
+        when(bookRepository.existsById(1L)).thenReturn(false);
 
         // When & Then
         assertThrows(ResourceNotFoundException.class, () -> {
             bookService.returnBook(1L);
         });
-        verify(bookRepository).findById(1L);
+        verify(bookRepository).markReturned(1L);
         verify(bookRepository, never()).save(any(Book.class));
     }
+
+    @Test
+    void borrowBooks_ReportsPerItemResults() {
+        // Given
+        availabilityIndex.add(1L);
+        availabilityIndex.add(2L);
+        availabilityIndex.claim(2L);
+        when(bookRepository.findAvailabilityByIdIn(List.of(3L))).thenReturn(List.of());
+        when(bookRepository.markAllBorrowed(List.of(1L))).thenReturn(1);
+
+        // When
+        BatchResultDTO result = bookService.borrowBooks(Arrays.asList(1L, 2L, 3L, 1L));
+
+        // Then
+        assertEquals(3, result.getResults().size());
+        assertEquals(BatchResultDTO.Status.SUCCESS, result.getResults().get(0).getStatus());
+        assertEquals(BatchResultDTO.Status.CONFLICT, result.getResults().get(1).getStatus());
+        assertEquals(BatchResultDTO.Status.NOT_FOUND, result.getResults().get(2).getStatus());
+        assertEquals(1, result.getSucceeded());
+        assertEquals(2, result.getFailed());
+        verify(bookRepository).markAllBorrowed(List.of(1L));
+    }
+
+    @Test
+    void borrowBooks_LostRace_FailsWholeBatch() {
+        // Given
+        availabilityIndex.add(1L);
+        availabilityIndex.add(2L);
+        when(bookRepository.markAllBorrowed(List.of(1L, 2L))).thenReturn(1);
+
+        // When & Then
+        assertThrows(IllegalStateException.class, () -> {
+            bookService.borrowBooks(List.of(1L, 2L));
+        });
+        assertNull(availabilityIndex.isBorrowed(1L));
+        assertNull(availabilityIndex.isBorrowed(2L));
+    }
+
+    @Test
+    void returnBooks_ReportsPerItemResults() {
+        // Given
+        BookAvailability borrowed = availability(1L, true);
+        BookAvailability available = availability(2L, false);
+        when(bookRepository.findAvailabilityByIdIn(any())).thenReturn(List.of(borrowed, available));
+        when(bookRepository.markAllReturned(List.of(1L))).thenReturn(1);
+
+        // When
+        BatchResultDTO result = bookService.returnBooks(List.of(1L, 2L, 3L));
+
+        // Then
+        assertEquals(BatchResultDTO.Status.SUCCESS, result.getResults().get(0).getStatus());
+        assertEquals(BatchResultDTO.Status.CONFLICT, result.getResults().get(1).getStatus());
+        assertEquals(BatchResultDTO.Status.NOT_FOUND, result.getResults().get(2).getStatus());
+        assertEquals(Boolean.FALSE, availabilityIndex.isBorrowed(1L));
+    }
+
+    @Test
+    void searchBooks_RanksTitleMatchesFirstAndMatchesPrefixes() {
+        // Given
+        searchIndex.index(1L, "Tolkien: A Biography", "Humphrey Carpenter", "1111111111");
+        searchIndex.index(2L, "The Hobbit", "J.R.R. Tolkien", "2222222222");
+        searchIndex.index(3L, "Dune", "Frank Herbert", "3333333333");
+        availabilityIndex.add(1L);
+        availabilityIndex.add(2L);
+        availabilityIndex.add(3L);
+
+        // When
+        List<BookDTO> byAuthor = bookService.searchBooks("tolkien", null, 10);
+        List<BookDTO> byPrefix = bookService.searchBooks("the hobb", null, 10);
+        List<BookDTO> prefixNotLast = bookService.searchBooks("hobb the", null, 10);
+
+        // Then
+        assertEquals(List.of(1L, 2L), byAuthor.stream().map(BookDTO::getId).toList());
+        assertEquals(1, byPrefix.size());
+        assertEquals("The Hobbit", byPrefix.get(0).getTitle());
+        assertTrue(prefixNotLast.isEmpty());
+        verifyNoInteractions(bookRepository);
+    }
+
+    @Test
+    void searchBooks_FiltersOnAvailability() {
+        // Given
+        searchIndex.index(1L, "Dune", "Frank Herbert", "1111111111");
+        searchIndex.index(2L, "Dune Messiah", "Frank Herbert", "2222222222");
+        availabilityIndex.add(1L);
+        availabilityIndex.add(2L);
+        availabilityIndex.claim(2L);
+
+        // When
+        List<BookDTO> available = bookService.searchBooks("dune", true, 10);
+        List<BookDTO> borrowed = bookService.searchBooks("dune", false, 10);
+
+        // Then
+        assertEquals(1, available.size());
+        assertEquals(1L, available.get(0).getId());
+        assertEquals(1, borrowed.size());
+        assertEquals(2L, borrowed.get(0).getId());
+        assertTrue(borrowed.get(0).isBorrowed());
+    }
+
+    @Test
+    void searchBooks_UnknownAvailability_ResolvedFromDatabase() {
+        // Given
+        searchIndex.index(1L, "Dune", "Frank Herbert", "1111111111");
+        searchIndex.index(2L, "Dune Messiah", "Frank Herbert", "2222222222");
+        searchIndex.index(3L, "Children of Dune", "Frank Herbert", "3333333333");
+        availabilityIndex.add(1L);
+        when(bookRepository.findAvailabilityByIdIn(any()))
+                .thenReturn(List.of(availability(2L, true)));
+
+        // When
+        List<BookDTO> available = bookService.searchBooks("dune", true, 10);
+
+        // Then
+        assertEquals(List.of(1L), available.stream().map(BookDTO::getId).toList());
+        assertEquals(Boolean.TRUE, availabilityIndex.isBorrowed(2L));
+        assertNull(availabilityIndex.isBorrowed(3L));
+        verify(bookRepository, times(1)).findAvailabilityByIdIn(any());
+    }
+
+    @Test
+    void deleteBook_RemovesBookFromSearchIndex() {
+        // Given
+        searchIndex.index(1L, "Test Title", "Test Author", "123456789");
+        when(bookRepository.existsById(1L)).thenReturn(true);
+
+        // When
+        bookService.deleteBook(1L);
+
+        // Then
+        assertTrue(bookService.searchBooks("test", null, 10).isEmpty());
+    }
+
+    private BookAvailability availability(Long id, boolean borrowed) {
+        return new BookAvailability() {
+            @Override
+            public Long getId() { return id; }
+
+            @Override
+            public boolean isBorrowed() { return borrowed; }
+        };
+    }
 }
\ No newline at end of file
@@ -0,0 +1,125 @@
+package com.reply.library.service;
+
+import com.reply.library.dto.HoldDTO;
+import com.reply.library.entity.Book;
+import com.reply.library.entity.Hold;
+import com.reply.library.exception.ResourceNotFoundException;
+import com.reply.library.repository.BookRepository;
+import com.reply.library.repository.HoldRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class HoldServiceTest {
+
+    @Mock
+    private HoldRepository holdRepository;
+
+    @Mock
+    private BookRepository bookRepository;
+
+    @Mock
+    private HoldNotifier holdNotifier;
+
+    @InjectMocks
+    private HoldService holdService;
+
+    @Test
+    void placeHold_QueuesMemberBehindExistingHolds() {
+        // Given
+        Book book = new Book("Dune", "Frank Herbert", "1234567890");
+        book.setBorrowed(true);
+        when(bookRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(book));
+        when(holdRepository.save(any(Hold.class))).thenAnswer(invocation -> {
+            Hold hold = invocation.getArgument(0);
+            hold.setId(5L);
+            return hold;
+        });
+        when(holdRepository.countByBookIdAndFulfilledAtIsNullAndIdLessThan(1L, 5L)).thenReturn(2L);
+
+        // When
+        HoldDTO hold = holdService.placeHold(1L, 7L);
+
+        // Then
+        assertEquals(HoldDTO.Status.WAITING, hold.getStatus());
+        assertEquals(3L, hold.getPosition());
+        assertEquals(7L, hold.getMemberId());
+    }
+
+    @Test
+    void placeHold_BookAvailable() {
+        // Given
+        Book book = new Book("Dune", "Frank Herbert", "1234567890");
+        when(bookRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(book));
+
+        // When & Then
+        IllegalStateException exception = assertThrows(IllegalStateException.class, () -> {
+            holdService.placeHold(1L, 7L);
+        });
+        assertEquals("Book is available, borrow it instead", exception.getMessage());
+        verify(holdRepository, never()).save(any(Hold.class));
+    }
+
+    @Test
+    void placeHold_BookNotFound() {
+        // Given
+        when(bookRepository.findByIdForUpdate(1L)).thenReturn(Optional.empty());
+
+        // When & Then
+        assertThrows(ResourceNotFoundException.class, () -> {
+            holdService.placeHold(1L, 7L);
+        });
+    }
+
+    @Test
+    void fulfilNext_MarksHeadOfQueueAndNotifies() {
+        // Given
+        Hold head = new Hold(1L, 7L, Instant.now());
+        head.setId(5L);
+        when(holdRepository.findFirstByBookIdAndFulfilledAtIsNullOrderByIdAsc(1L)).thenReturn(Optional.of(head));
+
+        // When
+        Optional<HoldDTO> fulfilled = holdService.fulfilNext(1L);
+
+        // Then
+        assertTrue(fulfilled.isPresent());
+        assertEquals(HoldDTO.Status.FULFILLED, fulfilled.get().getStatus());
+        assertNotNull(head.getFulfilledAt());
+        verify(holdNotifier).publish(fulfilled.get());
+    }
+
+    @Test
+    void fulfilNext_EmptyQueue() {
+        // Given
+        when(holdRepository.findFirstByBookIdAndFulfilledAtIsNullOrderByIdAsc(1L)).thenReturn(Optional.empty());
+
+        // When & Then
+        assertTrue(holdService.fulfilNext(1L).isEmpty());
+        verifyNoInteractions(holdNotifier);
+    }
+
+    @Test
+    void cancelHold_AlreadyFulfilled() {
+        // Given
+        Hold hold = new Hold(1L, 7L, Instant.now());
+        hold.setId(5L);
+        hold.setFulfilledAt(Instant.now());
+        when(holdRepository.findById(5L)).thenReturn(Optional.of(hold));
+
+        // When & Then
+        assertThrows(IllegalStateException.class, () -> {
+            holdService.cancelHold(5L);
+        });
+        verify(holdRepository, never()).delete(any(Hold.class));
+    }
+}
\ No newline at end of file
@@ -1,11 +1,17 @@
 package com.reply.library.service;
 
+import com.reply.library.config.ReadYourWritesTracker;
+import com.reply.library.dto.BatchResultDTO;
+import com.reply.library.dto.HoldDTO;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.util.List;
+import java.util.Optional;
+
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
@@ -18,6 +24,15 @@ class LibraryServiceTest {
     @Mock
     private MemberService memberService;
 
+    @Mock
+    private LoanService loanService;
+
+    @Mock
+    private HoldService holdService;
+
+    @Mock
+    private ReadYourWritesTracker readYourWrites;
+
     @InjectMocks
     private LibraryService libraryService;
 
@@ -32,6 +47,8 @@ class LibraryServiceTest {
 
         verify(memberService).existsById(memberId);
         verify(bookService).borrowBook(bookId);
+        verify(loanService).openLoan(bookId, memberId);
+        verify(readYourWrites).recordWrite();
     }
 
     @Test
@@ -47,6 +64,8 @@ class LibraryServiceTest {
         assertEquals("Member not found with id: " + memberId, exception.getMessage());
         verify(memberService).existsById(memberId);
         verify(bookService, never()).borrowBook(anyLong());
+        verify(loanService, never()).openLoan(anyLong(), anyLong());
+        verify(readYourWrites, never()).recordWrite();
     }
 
     @Test
@@ -60,5 +79,72 @@ class LibraryServiceTest {
 
         // Then
         verify(bookService).returnBook(bookId);
+        verify(loanService).closeLoan(bookId);
+    }
+
+    @Test
+    void returnBook_HandsOffToNextHold() {
+        // Given
+        Long bookId = 1L;
+        HoldDTO hold = new HoldDTO();
+        hold.setBookId(bookId);
+        hold.setMemberId(2L);
+        when(holdService.fulfilNext(bookId)).thenReturn(Optional.of(hold));
+
+        // When
+        libraryService.returnBook(bookId);
+
+        // Then
+        verify(loanService).closeLoan(bookId);
+        verify(bookService).handOff(bookId);
+        verify(loanService).openLoan(bookId, 2L);
+    }
+
+    @Test
+    void returnBook_NoHolds_LeavesBookAvailable() {
+        // Given
+        Long bookId = 1L;
+        when(holdService.fulfilNext(bookId)).thenReturn(Optional.empty());
+
+        // When
+        libraryService.returnBook(bookId);
+
+        // Then
+        verify(bookService, never()).handOff(anyLong());
+        verify(loanService, never()).openLoan(anyLong(), anyLong());
+    }
+
+    @Test
+    void borrowBooks_ValidatesMemberOnce() {
+        // Given
+        Long memberId = 1L;
+        List<Long> bookIds = List.of(1L, 2L, 3L);
+        BatchResultDTO result = new BatchResultDTO();
+        result.add(1L, BatchResultDTO.Status.SUCCESS, null);
+        result.add(2L, BatchResultDTO.Status.CONFLICT, "Book is already borrowed");
+        result.add(3L, BatchResultDTO.Status.SUCCESS, null);
+        when(memberService.existsById(memberId)).thenReturn(true);
+        when(bookService.borrowBooks(bookIds)).thenReturn(result);
+
+        // When
+        libraryService.borrowBooks(memberId, bookIds);
+
+        // Then
+        verify(memberService, times(1)).existsById(memberId);
+        verify(bookService).borrowBooks(bookIds);
+        verify(loanService).openLoans(List.of(1L, 3L), memberId);
+    }
+
+    @Test
+    void borrowBooks_MemberNotFound() {
+        // Given
+        Long memberId = 1L;
+        when(memberService.existsById(memberId)).thenReturn(false);
+
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> {
+            libraryService.borrowBooks(memberId, List.of(1L));
+        });
+        verify(bookService, never()).borrowBooks(anyList());
     }
 }
\ No newline at end of file
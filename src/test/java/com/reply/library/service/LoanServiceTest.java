@@ -0,0 +1,122 @@
+package com.reply.library.service;
+
+import com.reply.library.dto.CursorPageDTO;
+import com.reply.library.dto.LoanDTO;
+import com.reply.library.entity.Loan;
+import com.reply.library.repository.LoanRepository;
+import com.reply.library.util.CursorCodec;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LoanServiceTest {
+
+    @Mock
+    private LoanRepository loanRepository;
+
+    @InjectMocks
+    private LoanService loanService;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void openLoans_CreatesOneLoanPerBookDueAfterLoanPeriod() {
+        // Given
+        ArgumentCaptor<List<Loan>> saved = ArgumentCaptor.forClass(List.class);
+
+        // When
+        loanService.openLoans(List.of(1L, 2L), 7L);
+
+        // Then
+        verify(loanRepository).saveAll(saved.capture());
+        List<Loan> loans = saved.getValue();
+        assertEquals(2, loans.size());
+        assertEquals(7L, loans.get(0).getMemberId());
+        assertEquals(Duration.ofDays(14), Duration.between(loans.get(0).getBorrowedAt(), loans.get(0).getDueAt()));
+        assertNull(loans.get(1).getReturnedAt());
+    }
+
+    @Test
+    void openLoans_NothingToOpen() {
+        // When
+        loanService.openLoans(List.of(), 7L);
+
+        // Then
+        verifyNoInteractions(loanRepository);
+    }
+
+    @Test
+    void closeLoan_ClosesOpenLoanOfBook() {
+        // When
+        loanService.closeLoan(1L);
+
+        // Then
+        verify(loanRepository).closeOpenLoan(eq(1L), any(Instant.class));
+    }
+
+    @Test
+    void getOverdueLoans_ContinuesFromCursor() {
+        // Given
+        Instant due = Instant.parse("2025-01-01T00:00:00Z");
+        Loan first = loan(10L, due);
+        Loan second = loan(11L, due);
+        Loan extra = loan(12L, due.plusSeconds(60));
+        String after = CursorCodec.encode(due.minusSeconds(60).toEpochMilli(), 9L);
+        when(loanRepository.findOverdueAfter(any(Instant.class), eq(due.minusSeconds(60)), eq(9L), eq(PageRequest.of(0, 3))))
+                .thenReturn(List.of(first, second, extra));
+
+        // When
+        CursorPageDTO<LoanDTO> page = loanService.getOverdueLoans(after, 2);
+
+        // Then
+        assertEquals(2, page.getContent().size());
+        assertEquals(11L, page.getContent().get(1).getId());
+        assertArrayEquals(new long[] {due.toEpochMilli(), 11L}, CursorCodec.decode(page.getNext(), 2));
+    }
+
+    @Test
+    void getOverdueLoans_LastPageHasNoCursor() {
+        // Given
+        when(loanRepository.findOverdueAfter(any(Instant.class), eq(Instant.EPOCH), eq(0L), any()))
+                .thenReturn(List.of(loan(1L, Instant.parse("2025-01-01T00:00:00Z"))));
+
+        // When
+        CursorPageDTO<LoanDTO> page = loanService.getOverdueLoans(null, 10);
+
+        // Then
+        assertEquals(1, page.getContent().size());
+        assertNull(page.getNext());
+    }
+
+    @Test
+    void countOverdueLoans_CountsOpenLoansDueBeforeNow() {
+        // Given
+        Instant before = Instant.now();
+        when(loanRepository.countByReturnedAtIsNullAndDueAtBefore(any(Instant.class))).thenReturn(4L);
+
+        // When
+        long count = loanService.countOverdueLoans();
+
+        // Then
+        assertEquals(4L, count);
+        verify(loanRepository).countByReturnedAtIsNullAndDueAtBefore(argThat(now -> !now.isBefore(before)));
+    }
+
+    private Loan loan(Long id, Instant dueAt) {
+        Loan loan = new Loan(1L, 7L, dueAt.minus(Duration.ofDays(14)), dueAt);
+        loan.setId(id);
+        return loan;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,108 @@
+package com.reply.library.service;
+
+import com.reply.library.dto.OutboxEventDTO;
+import com.reply.library.entity.OutboxEvent;
+import com.reply.library.repository.OutboxRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxRelayTest {
+
+    @Mock
+    private OutboxRepository outboxRepository;
+
+    @Spy
+    private OutboxService outboxService = new OutboxService();
+
+    @Mock
+    private OutboxSink outboxSink;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @InjectMocks
+    private OutboxRelay outboxRelay;
+
+    @BeforeEach
+    void setUp() {
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    @Test
+    void relay_NumbersEventsAfterLastPositionAndSendsThem() throws Exception {
+        // Given
+        OutboxEvent first = event(11L, "BORROWED");
+        OutboxEvent second = event(12L, "RETURNED");
+        when(outboxRepository.findUnpublishedForUpdate(any(Pageable.class))).thenReturn(List.of(first, second));
+        when(outboxRepository.findMaxPosition()).thenReturn(40L);
+
+        // When
+        int relayed = outboxRelay.relay();
+
+        // Then
+        assertEquals(2, relayed);
+        assertEquals(41L, first.getPosition());
+        assertEquals(42L, second.getPosition());
+        assertNotNull(first.getPublishedAt());
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<OutboxEventDTO>> sent = ArgumentCaptor.forClass(List.class);
+        verify(outboxSink).send(sent.capture());
+        assertEquals(List.of("BORROWED", "RETURNED"), sent.getValue().stream().map(OutboxEventDTO::getType).toList());
+        assertEquals(2, meterRegistry.counter("library.outbox.relayed").count());
+    }
+
+    @Test
+    void relay_SinkFailure_LeavesBatchForNextRun() throws Exception {
+        // Given
+        when(outboxRepository.findUnpublishedForUpdate(any(Pageable.class))).thenReturn(List.of(event(11L, "CREATED")));
+        doThrow(new IOException("disk full")).when(outboxSink).send(anyList());
+
+        // When
+        int relayed = outboxRelay.relay();
+
+        // Then: the exception rolls the transaction back, so the rows stay unrelayed
+        assertEquals(0, relayed);
+        assertEquals(1, meterRegistry.counter("library.outbox.failures").count());
+    }
+
+    @Test
+    void relay_NothingToSend() throws Exception {
+        // Given
+        when(outboxRepository.findUnpublishedForUpdate(any(Pageable.class))).thenReturn(List.of());
+
+        // When & Then
+        assertEquals(0, outboxRelay.relay());
+        verify(outboxSink, never()).send(anyList());
+    }
+
+    private OutboxEvent event(Long id, String type) {
+        OutboxEvent event = new OutboxEvent(OutboxService.BOOK, 1L, type, null, Instant.now());
+        event.setId(id);
+        return event;
+    }
+}
\ No newline at end of file
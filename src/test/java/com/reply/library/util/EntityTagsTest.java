@@ -0,0 +1,47 @@
+package com.reply.library.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EntityTagsTest {
+
+    @Test
+    void build_SameInputsGiveSameQuotedTag() {
+        // When
+        String first = EntityTags.builder("book").add(1L).add(3L).add("id,title").build();
+        String second = EntityTags.builder("book").add(1L).add(3L).add("id,title").build();
+
+        // Then
+        assertEquals(first, second);
+        assertTrue(first.matches("\"[0-9a-f]{32}\""));
+    }
+
+    @Test
+    void build_TellsApartVersionsAndStringBoundaries() {
+        // When
+        String base = EntityTags.builder("book").add(1L).add(3L).add("ab").add("c").build();
+        String newerVersion = EntityTags.builder("book").add(1L).add(4L).add("ab").add("c").build();
+        String shiftedBoundary = EntityTags.builder("book").add(1L).add(3L).add("a").add("bc").build();
+        String emptyInsteadOfNull = EntityTags.builder("book").add(1L).add(3L).add("").build();
+        String nullValue = EntityTags.builder("book").add(1L).add(3L).add((String) null).build();
+
+        // Then
+        assertNotEquals(base, newerVersion);
+        assertNotEquals(base, shiftedBoundary);
+        assertNotEquals(emptyInsteadOfNull, nullValue);
+    }
+
+    @Test
+    void matches_ComparesListedTagsWeakly() {
+        // Given
+        String tag = "\"abc\"";
+
+        // Then
+        assertTrue(EntityTags.matches("\"xyz\", \"abc\"", tag));
+        assertTrue(EntityTags.matches("W/\"abc\"", tag));
+        assertTrue(EntityTags.matches("*", tag));
+        assertFalse(EntityTags.matches("\"abcd\"", tag));
+        assertFalse(EntityTags.matches(null, tag));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,75 @@
+package com.reply.library.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimiterTest {
+
+    private final AtomicLong now = new AtomicLong(TimeUnit.SECONDS.toNanos(100));
+
+    // 10 per second, so one token every 100ms, and up to 3 at once
+    private final RateLimiter limiter = new RateLimiter(10, 3, 1000, now::get);
+
+    @Test
+    void tryAcquire_AllowsBurstThenReportsWait() {
+        // When
+        long first = limiter.tryAcquire("alice");
+        long second = limiter.tryAcquire("alice");
+        long third = limiter.tryAcquire("alice");
+        long fourth = limiter.tryAcquire("alice");
+
+        // Then
+        assertEquals(0, first);
+        assertEquals(0, second);
+        assertEquals(0, third);
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(100), fourth);
+    }
+
+    @Test
+    void tryAcquire_RefillsOneTokenPerInterval() {
+        // Given: the bucket is empty
+        for (int i = 0; i < 3; i++) {
+            limiter.tryAcquire("alice");
+        }
+
+        // When
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(100));
+
+        // Then
+        assertEquals(0, limiter.tryAcquire("alice"));
+        assertTrue(limiter.tryAcquire("alice") > 0);
+    }
+
+    @Test
+    void tryAcquire_KeysHaveSeparateBuckets() {
+        // Given
+        for (int i = 0; i < 3; i++) {
+            limiter.tryAcquire("alice");
+        }
+
+        // When & Then
+        assertTrue(limiter.tryAcquire("alice") > 0);
+        assertEquals(0, limiter.tryAcquire("bob"));
+        assertEquals(2, limiter.trackedKeys());
+    }
+
+    @Test
+    void tryAcquire_IdleBucketDoesNotSaveUpBeyondBurst() {
+        // Given: a long quiet period
+        limiter.tryAcquire("alice");
+        now.addAndGet(TimeUnit.SECONDS.toNanos(60));
+
+        // When
+        int allowed = 0;
+        while (limiter.tryAcquire("alice") == 0) {
+            allowed++;
+        }
+
+        // Then
+        assertEquals(3, allowed);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,102 @@
+package com.reply.library.util;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final SingleFlight<Long, String> lookups = new SingleFlight<>("books", meterRegistry);
+
+    @Test
+    void execute_ConcurrentCallsShareOneLoad() throws Exception {
+        // Given: the first load is held until the second caller has joined
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> first = CompletableFuture.supplyAsync(() -> lookups.execute(1L, () -> {
+            loads.incrementAndGet();
+            loading.countDown();
+            await(release);
+            return "Dune";
+        }));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+
+        // When
+        CompletableFuture<String> second = CompletableFuture.supplyAsync(() -> lookups.execute(1L, () -> {
+            loads.incrementAndGet();
+            return "Dune, reloaded";
+        }));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (meterRegistry.counter("library.singleflight.calls", "name", "books", "outcome", "shared").count() < 1
+                && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+        release.countDown();
+
+        // Then
+        assertEquals("Dune", first.get(5, TimeUnit.SECONDS));
+        assertEquals("Dune", second.get(5, TimeUnit.SECONDS));
+        assertEquals(1, loads.get());
+        assertEquals(1, meterRegistry.counter("library.singleflight.calls", "name", "books", "outcome", "executed").count());
+    }
+
+    @Test
+    void execute_SequentialCallsLoadAgain() {
+        // Given
+        AtomicInteger loads = new AtomicInteger();
+
+        // When
+        lookups.execute(1L, () -> "v" + loads.incrementAndGet());
+        String second = lookups.execute(1L, () -> "v" + loads.incrementAndGet());
+
+        // Then: nothing is kept once a call is done
+        assertEquals("v2", second);
+    }
+
+    @Test
+    void execute_ForgottenWhileLoading_DoesNotPublish() {
+        // Given
+        List<String> published = new ArrayList<>();
+
+        // When: a write commits while the load runs
+        String value = lookups.execute(1L, () -> {
+            lookups.forget(1L);
+            return "stale";
+        }, published::add);
+        lookups.execute(1L, () -> "fresh", published::add);
+
+        // Then
+        assertEquals("stale", value);
+        assertEquals(List.of("fresh"), published);
+    }
+
+    @Test
+    void execute_LoaderExceptionReachesCaller() {
+        // When & Then
+        IllegalStateException exception = assertThrows(IllegalStateException.class, () -> {
+            lookups.execute(1L, () -> {
+                throw new IllegalStateException("boom");
+            });
+        });
+        assertEquals("boom", exception.getMessage());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
\ No newline at end of file